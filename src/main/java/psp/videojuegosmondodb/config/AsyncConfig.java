@@ -0,0 +1,24 @@
+package psp.videojuegosmondodb.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuración de las peticiones asíncronas de Spring MVC
+ */
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    private final long timeoutExportacionMs;
+
+    public AsyncConfig(@Value("${exportacion.timeout-ms:1800000}") long timeoutExportacionMs) {
+        this.timeoutExportacionMs = timeoutExportacionMs;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new TiempoEsperaExportacion(timeoutExportacionMs));
+    }
+}
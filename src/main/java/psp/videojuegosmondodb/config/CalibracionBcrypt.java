@@ -0,0 +1,49 @@
+package psp.videojuegosmondodb.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Elige el coste de bcrypt según el hardware en el que arranca la aplicación.
+ * Mide el tiempo de un hash con el coste mínimo y, como cada punto de coste duplica
+ * el trabajo, sube el coste mientras el tiempo estimado no supere el objetivo.
+ */
+public final class CalibracionBcrypt {
+
+    private static final Logger log = LoggerFactory.getLogger(CalibracionBcrypt.class);
+    private static final int MEDICIONES = 3;
+
+    private CalibracionBcrypt() {
+    }
+
+    /**
+     * Calcula el mayor coste cuyo hash tarda como mucho el tiempo objetivo
+     * @param objetivoMs tiempo objetivo de un hash en milisegundos
+     * @param costeMinimo coste por debajo del cual no se baja aunque el hardware sea lento (4 a 31)
+     * @param costeMaximo coste máximo permitido (4 a 31)
+     * @return coste calibrado entre el mínimo y el máximo
+     */
+    public static int calibrar(long objetivoMs, int costeMinimo, int costeMaximo) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(costeMinimo);
+        // Calentamiento: la primera ejecución incluye carga de clases y compilación JIT
+        encoder.encode("calibracion");
+        long mejorNanos = Long.MAX_VALUE;
+        for (int i = 0; i < MEDICIONES; i++) {
+            long inicio = System.nanoTime();
+            encoder.encode("calibracion");
+            mejorNanos = Math.min(mejorNanos, System.nanoTime() - inicio);
+        }
+
+        long objetivoNanos = objetivoMs * 1_000_000;
+        int coste = costeMinimo;
+        double estimadoNanos = mejorNanos;
+        while (coste < costeMaximo && estimadoNanos * 2 <= objetivoNanos) {
+            coste++;
+            estimadoNanos *= 2;
+        }
+        log.info("Coste de bcrypt calibrado: {} (~{} ms por hash; coste {} medido en {} ms, objetivo {} ms)",
+                coste, Math.round(estimadoNanos / 1_000_000), costeMinimo, mejorNanos / 1_000_000, objetivoMs);
+        return coste;
+    }
+}
@@ -0,0 +1,35 @@
+package psp.videojuegosmondodb.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.web.access.AccessDeniedHandler;
+import org.springframework.stereotype.Component;
+import psp.videojuegosmondodb.exception.ErrorResponseWriter;
+
+import java.io.IOException;
+
+/**
+ * Manejador de los accesos denegados por las reglas de {@link SecurityConfig}, con el mismo
+ * cuerpo JSON que los denegados en los controladores
+ */
+@Component
+public class JwtAccessDeniedHandler implements AccessDeniedHandler {
+
+    private static final ErrorResponseWriter.TipoError ACCESO_DENEGADO =
+            ErrorResponseWriter.tipo(HttpStatus.FORBIDDEN, "Acceso denegado",
+                    "No tiene permisos para realizar esta operación");
+
+    private final ErrorResponseWriter errorResponseWriter;
+
+    public JwtAccessDeniedHandler(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
+    @Override
+    public void handle(HttpServletRequest request, HttpServletResponse response,
+                       AccessDeniedException accessDeniedException) throws IOException {
+        errorResponseWriter.escribir(response, ACCESO_DENEGADO, null, request.getRequestURI());
+    }
+}
@@ -1,17 +1,14 @@
 package psp.videojuegosmondodb.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
+import psp.videojuegosmondodb.exception.ErrorResponseWriter;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Punto de entrada para manejar errores de autenticación
@@ -19,20 +16,21 @@ import java.util.Map;
 @Component
 public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
+    private static final ErrorResponseWriter.TipoError NO_AUTORIZADO =
+            ErrorResponseWriter.tipo(HttpStatus.UNAUTHORIZED, "No autorizado");
+
+    private final ErrorResponseWriter errorResponseWriter;
+
+    public JwtAuthenticationEntryPoint(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
                          AuthenticationException authException) throws IOException {
-        
-        response.setStatus(HttpStatus.UNAUTHORIZED.value());
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        
-        Map<String, Object> errorDetails = new HashMap<>();
-        errorDetails.put("status", HttpStatus.UNAUTHORIZED.value());
-        errorDetails.put("error", "No autorizado");
-        errorDetails.put("message", authException.getMessage() != null ? 
-                authException.getMessage() : "Token de autenticación no válido o ausente");
-        errorDetails.put("path", request.getRequestURI());
-        
-        new ObjectMapper().writeValue(response.getOutputStream(), errorDetails);
+        errorResponseWriter.escribir(response, NO_AUTORIZADO,
+                authException.getMessage() != null ?
+                        authException.getMessage() : "Token de autenticación no válido o ausente",
+                request.getRequestURI());
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package psp.videojuegosmondodb.config;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,11 +9,13 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import psp.videojuegosmondodb.service.RevocacionTokens;
+import psp.videojuegosmondodb.service.UsuarioService;
 import psp.videojuegosmondodb.util.JwtUtil;
+import psp.videojuegosmondodb.util.VerificadorTokens;
 
 import java.io.IOException;
 
@@ -21,12 +25,25 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final VerificadorTokens verificadorTokens;
+    private final UsuarioService usuarioService;
+    private final RevocacionTokens revocacionTokens;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
-        this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+    public JwtAuthenticationFilter(VerificadorTokens verificadorTokens,
+                                   UsuarioService usuarioService,
+                                   RevocacionTokens revocacionTokens) {
+        this.verificadorTokens = verificadorTokens;
+        this.usuarioService = usuarioService;
+        this.revocacionTokens = revocacionTokens;
+    }
+
+    /**
+     * Las lecturas públicas del catálogo no necesitan autenticación: no se verifica
+     * el token ni se carga el usuario aunque la petición lleve cabecera Authorization
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return RutasPublicas.LECTURAS.matches(request);
     }
 
     @Override
@@ -35,31 +52,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authorizationHeader = request.getHeader("Authorization");
         
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
         
         // Verificar si el header Authorization existe y comienza con "Bearer "
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
+                // Los tokens ya verificados se toman de caché; los claims se reutilizan en el resto de la petición
+                claims = verificadorTokens.verificar(authorizationHeader.substring(7));
+                // Los tokens de refresco no autentican peticiones; la revocación se consulta
+                // fuera de la caché de verificación, que no sabe de cierres de sesión posteriores
+                if (JwtUtil.esRefresco(claims) || revocacionTokens.estaRevocado(claims.getId())) {
+                    claims = null;
+                } else {
+                    request.setAttribute(JwtUtil.ATRIBUTO_CLAIMS, claims);
+                }
+            } catch (JwtException | IllegalArgumentException e) {
                 // Token inválido, continuamos con la cadena de filtros
             }
         }
         
-        // Si se extrajo el username y no hay autenticación en el contexto de seguridad
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        // Si el token es válido y no hay autenticación en el contexto de seguridad
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Principal en caché: no se consulta MongoDB en cada petición autenticada
+            UserDetails userDetails = this.usuarioService.cargarPrincipal(claims.getSubject());
             
-            // Validar el token
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-            }
+            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            
+            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
         }
         
         filterChain.doFilter(request, response);
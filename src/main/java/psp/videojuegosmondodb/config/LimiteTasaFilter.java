@@ -0,0 +1,151 @@
+package psp.videojuegosmondodb.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import psp.videojuegosmondodb.exception.ErrorResponseWriter;
+import psp.videojuegosmondodb.model.Usuario;
+import psp.videojuegosmondodb.util.LimitadorTasa;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro que limita la frecuencia de las peticiones más costosas: inicio de sesión y registro
+ * (hash bcrypt) y creación de valoraciones. Cada ruta tiene su propio límite y cada cliente su
+ * propio cubo: el ID del usuario si la petición está autenticada, o la IP en caso contrario.
+ * Se ejecuta tras {@link JwtAuthenticationFilter} para conocer al usuario.
+ * Las peticiones rechazadas reciben 429 con la cabecera Retry-After.
+ */
+@Component
+public class LimiteTasaFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(LimiteTasaFilter.class);
+
+    private static final ErrorResponseWriter.TipoError DEMASIADAS_SOLICITUDES =
+            ErrorResponseWriter.tipo(HttpStatus.TOO_MANY_REQUESTS, "Demasiadas solicitudes");
+
+    private final List<RutaLimitada> rutas = new ArrayList<>();
+    private final LimitadorTasa limitador;
+    private final ErrorResponseWriter errorResponseWriter;
+    // Solo lo usa la limpieza programada, que nunca se ejecuta en paralelo consigo misma
+    private long desbordamientosAvisados;
+
+    public LimiteTasaFilter(ErrorResponseWriter errorResponseWriter,
+                            MeterRegistry meterRegistry,
+                            @Value("${limite-tasa.tamano-maximo:100000}") int tamanoMaximo,
+                            @Value("${limite-tasa.login.capacidad:5}") int capacidadLogin,
+                            @Value("${limite-tasa.login.por-minuto:10}") int porMinutoLogin,
+                            @Value("${limite-tasa.registro.capacidad:3}") int capacidadRegistro,
+                            @Value("${limite-tasa.registro.por-minuto:5}") int porMinutoRegistro,
+                            @Value("${limite-tasa.valoraciones.capacidad:10}") int capacidadValoraciones,
+                            @Value("${limite-tasa.valoraciones.por-minuto:30}") int porMinutoValoraciones) {
+        this.errorResponseWriter = errorResponseWriter;
+        this.limitador = new LimitadorTasa(tamanoMaximo);
+        agregarRuta("login", HttpMethod.POST, "/auth/login", capacidadLogin, porMinutoLogin);
+        agregarRuta("registro", HttpMethod.POST, "/auth/register", capacidadRegistro, porMinutoRegistro);
+        agregarRuta("valoraciones", HttpMethod.POST, "/valoraciones", capacidadValoraciones, porMinutoValoraciones);
+
+        Gauge.builder("limite.tasa.clientes", limitador, LimitadorTasa::tamano)
+                .description("Clientes con cubo de peticiones en memoria")
+                .register(meterRegistry);
+        FunctionCounter.builder("limite.tasa.rechazos", limitador, LimitadorTasa::rechazos)
+                .description("Peticiones rechazadas con 429")
+                .register(meterRegistry);
+        FunctionCounter.builder("limite.tasa.desbordamientos", limitador, LimitadorTasa::desbordamientos)
+                .description("Peticiones de clientes nuevos rechazadas por estar llena la tabla de cubos")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return ruta(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RutaLimitada ruta = ruta(request);
+        long esperaNanos = limitador.intentar(ruta.nombre() + "|" + cliente(request),
+                ruta.capacidad(), ruta.intervaloNanos());
+        if (esperaNanos > 0) {
+            rechazar(request, response, esperaNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Descarta periódicamente los cubos de clientes sin peticiones recientes y avisa si desde
+     * la última limpieza se han rechazado clientes nuevos por estar llena la tabla
+     */
+    @Scheduled(fixedDelayString = "${limite-tasa.limpieza-ms:60000}")
+    public void purgar() {
+        limitador.purgar();
+        long desbordamientos = limitador.desbordamientos();
+        long nuevos = desbordamientos - desbordamientosAvisados;
+        desbordamientosAvisados = desbordamientos;
+        if (nuevos > 0) {
+            log.warn("Tabla de límite de tasa llena ({} clientes): {} peticiones de clientes nuevos rechazadas",
+                    limitador.tamano(), nuevos);
+        }
+    }
+
+    private void agregarRuta(String nombre, HttpMethod metodo, String patron, int capacidad, int porMinuto) {
+        // Capacidad o tasa 0 desactivan el límite de la ruta
+        if (capacidad > 0 && porMinuto > 0) {
+            RequestMatcher matcher = PathPatternRequestMatcher.withDefaults().matcher(metodo, patron);
+            rutas.add(new RutaLimitada(nombre, matcher, capacidad, TimeUnit.MINUTES.toNanos(1) / porMinuto));
+        }
+    }
+
+    private RutaLimitada ruta(HttpServletRequest request) {
+        for (RutaLimitada ruta : rutas) {
+            if (ruta.matcher().matches(request)) {
+                return ruta;
+            }
+        }
+        return null;
+    }
+
+    private static String cliente(HttpServletRequest request) {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion != null && autenticacion.getPrincipal() instanceof Usuario usuario) {
+            return "usuario:" + usuario.getId();
+        }
+        // Tras un proxy interno es la IP de X-Forwarded-For (server.forward-headers-strategy=native)
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void rechazar(HttpServletRequest request, HttpServletResponse response, long esperaNanos)
+            throws IOException {
+        // Retry-After se expresa en segundos enteros, redondeando hacia arriba
+        long segundos = Math.max(1, (esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        errorResponseWriter.escribir(response, DEMASIADAS_SOLICITUDES,
+                "Ha superado el límite de solicitudes, inténtelo de nuevo en " + segundos + " s",
+                request.getRequestURI());
+    }
+
+    private record RutaLimitada(String nombre, RequestMatcher matcher, int capacidad, long intervaloNanos) {
+    }
+}
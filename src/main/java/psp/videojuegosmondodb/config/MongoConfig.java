@@ -1,5 +1,7 @@
 package psp.videojuegosmondodb.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -12,6 +14,7 @@ import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
 import java.time.Year;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuración de MongoDB con convertidores personalizados
@@ -19,6 +22,25 @@ import java.util.Arrays;
 @Configuration
 public class MongoConfig {
 
+    /**
+     * Dimensiona el pool de conexiones del driver. Con hilos virtuales Tomcat deja de limitar las
+     * peticiones simultáneas a su pool de hilos, así que el límite real pasa a ser este pool:
+     * las peticiones que no consiguen conexión esperan como mucho esperaMaximaMs
+     * @return personalización de la configuración del cliente de MongoDB
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer poolConexiones(
+            @Value("${mongo.pool.tamano-maximo:100}") int tamanoMaximo,
+            @Value("${mongo.pool.tamano-minimo:0}") int tamanoMinimo,
+            @Value("${mongo.pool.conexiones-simultaneas:2}") int conexionesSimultaneas,
+            @Value("${mongo.pool.espera-maxima-ms:2000}") long esperaMaximaMs) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(tamanoMaximo)
+                .minSize(tamanoMinimo)
+                .maxConnecting(conexionesSimultaneas)
+                .maxWaitTime(esperaMaximaMs, TimeUnit.MILLISECONDS));
+    }
+
     /**
      * Configura un listener para validar los documentos antes de guardarlos
      * @param validator validador de beans
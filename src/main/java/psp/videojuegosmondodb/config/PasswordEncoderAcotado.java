@@ -0,0 +1,139 @@
+package psp.videojuegosmondodb.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import psp.videojuegosmondodb.exception.ServiceUnavailableException;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Codificador de contraseñas que ejecuta el hash (bcrypt) en un pool propio de tamaño fijo
+ * con una cola acotada. Así los inicios de sesión y registros masivos consumen como mucho
+ * esos hilos de CPU y no dejan sin CPU a las lecturas del catálogo. Si la cola está llena
+ * la operación se rechaza al momento con {@link ServiceUnavailableException} (503).
+ * Los hilos son de plataforma aunque las peticiones usen hilos virtuales: el hash es trabajo de
+ * CPU y este pool es precisamente el que acota cuánta se le dedica.
+ */
+public class PasswordEncoderAcotado implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegado;
+    private final ThreadPoolExecutor executor;
+    private final Timer tiempoCodificar;
+    private final Timer tiempoComprobar;
+    private final Counter rechazos;
+
+    /**
+     * @param delegado codificador que calcula los hashes
+     * @param hilos número de hilos dedicados al hash
+     * @param capacidadCola operaciones que pueden esperar turno antes de rechazar nuevas
+     * @param meterRegistry registro de métricas
+     */
+    public PasswordEncoderAcotado(PasswordEncoder delegado, int hilos, int capacidadCola,
+                                  MeterRegistry meterRegistry) {
+        this.delegado = delegado;
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), hilosDeHash(), new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("seguridad.hash.cola", executor, e -> e.getQueue().size())
+                .description("Operaciones de hash de contraseñas esperando turno")
+                .register(meterRegistry);
+        Gauge.builder("seguridad.hash.activos", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Operaciones de hash de contraseñas en ejecución")
+                .register(meterRegistry);
+        this.tiempoCodificar = Timer.builder("seguridad.hash.duracion")
+                .tag("operacion", "codificar")
+                .description("Tiempo de cálculo del hash, sin contar la espera en cola")
+                .register(meterRegistry);
+        this.tiempoComprobar = Timer.builder("seguridad.hash.duracion")
+                .tag("operacion", "comprobar")
+                .description("Tiempo de cálculo del hash, sin contar la espera en cola")
+                .register(meterRegistry);
+        this.rechazos = Counter.builder("seguridad.hash.rechazos")
+                .description("Operaciones de hash rechazadas por cola llena")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(() -> tiempoCodificar.recordCallable(() -> delegado.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(() -> tiempoComprobar.recordCallable(() -> delegado.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Indica si el hash debe rehacerse. Solo inspecciona el hash, sin pasar por el pool
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Codifica una contraseña si el pool la admite y, con la cola llena, renuncia sin error.
+     * Es para rehacer hashes antiguos tras un inicio de sesión correcto: ese inicio de sesión
+     * no debe acabar en 503 por una mejora que puede hacerse en el siguiente
+     * @param rawPassword contraseña en claro
+     * @return el nuevo hash, o vacío si la operación se ha rechazado
+     */
+    public Optional<String> codificarSiHayHueco(CharSequence rawPassword) {
+        try {
+            return Optional.of(encode(rawPassword));
+        } catch (ServiceUnavailableException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Envía la operación al pool y espera su resultado en el hilo de la petición
+     */
+    private <T> T ejecutar(Callable<T> operacion) {
+        Future<T> resultado;
+        try {
+            resultado = executor.submit(operacion);
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new ServiceUnavailableException("Demasiadas solicitudes de autenticación, inténtelo más tarde");
+        }
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Operación de autenticación interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ThreadFactory hilosDeHash() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, "hash-contrasenas-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+}
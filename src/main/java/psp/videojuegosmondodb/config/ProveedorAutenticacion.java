@@ -0,0 +1,43 @@
+package psp.videojuegosmondodb.config;
+
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import psp.videojuegosmondodb.service.UsuarioService;
+
+import java.util.Optional;
+
+/**
+ * Autenticación por email y contraseña contra {@link UsuarioService}.
+ * Rehace los hashes antiguos tras un inicio de sesión correcto igual que DaoAuthenticationProvider,
+ * pero sin arriesgarse a un rechazo del pool de hash: si hay sitio en la cola de
+ * {@link PasswordEncoderAcotado} el rehash espera su turno como cualquier otra operación, y si está
+ * llena se conserva el hash anterior y se intentará en el siguiente inicio de sesión, en lugar de
+ * responder 503 a una autenticación que ya ha sido correcta.
+ * No es un bean: lo usa solo el AuthenticationManager de {@link SecurityConfig}.
+ */
+public class ProveedorAutenticacion extends DaoAuthenticationProvider {
+
+    private final UsuarioService usuarioService;
+    private final PasswordEncoderAcotado passwordEncoder;
+
+    public ProveedorAutenticacion(UsuarioService usuarioService, PasswordEncoderAcotado passwordEncoder) {
+        super(usuarioService);
+        setPasswordEncoder(passwordEncoder);
+        // Sin UserDetailsPasswordService: el rehash lo hace createSuccessAuthentication
+        this.usuarioService = usuarioService;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            Optional<String> nuevoHash = passwordEncoder.codificarSiHayHueco(authentication.getCredentials().toString());
+            if (nuevoHash.isPresent()) {
+                user = usuarioService.updatePassword(user, nuevoHash.get());
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -0,0 +1,35 @@
+package psp.videojuegosmondodb.config;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * Rutas de lectura pública del catálogo. Las usan tanto la autorización de {@link SecurityConfig}
+ * como {@link JwtAuthenticationFilter}, que no procesa el token en ellas, así que ambas
+ * listas no pueden divergir.
+ */
+public final class RutasPublicas {
+
+    private static final PathPatternRequestMatcher.Builder RUTAS = PathPatternRequestMatcher.withDefaults();
+
+    /**
+     * Peticiones GET de consulta anónima. Excluye la exportación del catálogo, que es
+     * un GET pero exige rol ADMIN y por tanto necesita el token
+     */
+    public static final RequestMatcher LECTURAS = new AndRequestMatcher(
+            new OrRequestMatcher(
+                    RUTAS.matcher(HttpMethod.GET, "/videojuegos/**"),
+                    RUTAS.matcher(HttpMethod.GET, "/generos/**"),
+                    RUTAS.matcher(HttpMethod.GET, "/desarrolladores/**"),
+                    RUTAS.matcher(HttpMethod.GET, "/valoraciones/**"),
+                    RUTAS.matcher(HttpMethod.GET, "/reactivo/videojuegos/**"),
+                    RUTAS.matcher(HttpMethod.GET, "/reactivo/valoraciones/**")),
+            new NegatedRequestMatcher(RUTAS.matcher(HttpMethod.GET, "/videojuegos/exportar")));
+
+    private RutasPublicas() {
+    }
+}
@@ -1,25 +1,33 @@
 package psp.videojuegosmondodb.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import psp.videojuegosmondodb.service.UsuarioService;
+import psp.videojuegosmondodb.util.Paginacion;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Configuración de seguridad de Spring
@@ -30,26 +38,31 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+    private final JwtAccessDeniedHandler jwtAccessDeniedHandler;
 
-    public SecurityConfig(JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint) {
+    public SecurityConfig(JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
+                          JwtAccessDeniedHandler jwtAccessDeniedHandler) {
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
+        this.jwtAccessDeniedHandler = jwtAccessDeniedHandler;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http,
-                                                   JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception {
+                                                   JwtAuthenticationFilter jwtAuthenticationFilter,
+                                                   LimiteTasaFilter limiteTasaFilter) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
-                .exceptionHandling(ex -> ex.authenticationEntryPoint(jwtAuthenticationEntryPoint))
+                .exceptionHandling(ex -> ex
+                        .authenticationEntryPoint(jwtAuthenticationEntryPoint)
+                        .accessDeniedHandler(jwtAccessDeniedHandler))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         // ✅ Endpoints públicos
+                        .requestMatchers(HttpMethod.POST, "/auth/logout").authenticated()
                         .requestMatchers("/auth/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/videojuegos/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/generos/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/desarrolladores/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/valoraciones/**").permitAll() // 🆕 GET valoraciones público
+                        // GET de videojuegos, géneros, desarrolladores y valoraciones; el filtro JWT no actúa en ellos
+                        .requestMatchers(RutasPublicas.LECTURAS).permitAll()
 
                         // ✅ Valoraciones - POST requiere autenticación (cualquier usuario)
                         .requestMatchers(HttpMethod.POST, "/valoraciones").authenticated()
@@ -72,22 +85,70 @@ public class SecurityConfig {
                         // ✅ Endpoints de usuarios (solo ADMIN)
                         .requestMatchers("/usuarios/**").hasRole("ADMIN")
 
+                        // Métricas de Actuator (solo ADMIN); health sigue al alcance de cualquier usuario autenticado
+                        .requestMatchers(EndpointRequest.toAnyEndpoint().excluding(HealthEndpoint.class)).hasRole("ADMIN")
+
                         // El resto de endpoints requieren autenticación
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Tras el filtro JWT para limitar por usuario cuando la petición está autenticada
+                .addFilterAfter(limiteTasaFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * Evita que los filtros JWT y de límite de tasa, al ser @Component, se registren además
+     * como filtros del contenedor: solo deben ejecutarse dentro de la cadena de seguridad
+     */
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(
+            JwtAuthenticationFilter jwtAuthenticationFilter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registro = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registro.setEnabled(false);
+        return registro;
+    }
+
+    @Bean
+    public FilterRegistrationBean<LimiteTasaFilter> limiteTasaFilterRegistration(LimiteTasaFilter limiteTasaFilter) {
+        FilterRegistrationBean<LimiteTasaFilter> registro = new FilterRegistrationBean<>(limiteTasaFilter);
+        registro.setEnabled(false);
+        return registro;
+    }
+
+    /**
+     * BCrypt ejecutado en un pool acotado, separado de los hilos que atienden peticiones.
+     * Los hashes nuevos se guardan con prefijo {bcrypt} y el coste calibrado; los existentes
+     * sin prefijo o con menos coste se siguen aceptando y se rehacen al iniciar sesión
+     * (ver {@link ProveedorAutenticacion})
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoderAcotado passwordEncoder(MeterRegistry meterRegistry,
+                                                 @Value("${seguridad.hash.hilos:0}") int hilos,
+                                                 @Value("${seguridad.hash.capacidad-cola:50}") int capacidadCola,
+                                                 @Value("${seguridad.bcrypt.coste:0}") int coste,
+                                                 @Value("${seguridad.bcrypt.objetivo-ms:250}") long objetivoMs,
+                                                 @Value("${seguridad.bcrypt.coste-minimo:10}") int costeMinimo,
+                                                 @Value("${seguridad.bcrypt.coste-maximo:16}") int costeMaximo) {
+        int costeBcrypt = coste > 0 ? coste : CalibracionBcrypt.calibrar(objetivoMs, costeMinimo, costeMaximo);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(costeBcrypt);
+        DelegatingPasswordEncoder delegado = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        // Los hashes guardados antes de usar prefijos son bcrypt
+        delegado.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        // Por defecto, la mitad de los procesadores: el resto queda para servir lecturas
+        int hilosHash = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new PasswordEncoderAcotado(delegado, hilosHash, capacidadCola, meterRegistry);
     }
 
+    /**
+     * Gestor de autenticación del inicio de sesión, con {@link ProveedorAutenticacion} como único proveedor
+     */
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration authenticationConfiguration) throws Exception {
-        return authenticationConfiguration.getAuthenticationManager();
+    public AuthenticationManager authenticationManager(UsuarioService usuarioService,
+                                                       PasswordEncoderAcotado passwordEncoder) {
+        return new ProviderManager(new ProveedorAutenticacion(usuarioService, passwordEncoder));
     }
 
     @Bean
@@ -96,7 +157,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(List.of("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With"));
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setExposedHeaders(List.of("Authorization", Paginacion.CABECERA_SIGUIENTE_CURSOR));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -0,0 +1,43 @@
+package psp.videojuegosmondodb.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Amplía el tiempo máximo de la petición asíncrona solo para la exportación del catálogo,
+ * que puede tardar minutos. El resto de respuestas asíncronas (entre ellas los flujos
+ * del perfil reactivo) mantienen el tiempo general de spring.mvc.async.request-timeout
+ */
+public class TiempoEsperaExportacion implements CallableProcessingInterceptor {
+
+    static final RequestMatcher EXPORTACION =
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.GET, "/videojuegos/exportar");
+
+    private final long timeoutMs;
+
+    /**
+     * @param timeoutMs tiempo máximo de la exportación en milisegundos
+     */
+    public TiempoEsperaExportacion(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Se ejecuta antes de iniciar el procesamiento asíncrono, cuando aún se puede cambiar su tiempo máximo
+     */
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+        if (request instanceof AsyncWebRequest asyncRequest
+                && servletRequest != null && EXPORTACION.matches(servletRequest)) {
+            asyncRequest.setTimeout(timeoutMs);
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package psp.videojuegosmondodb.controller;
 
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import psp.videojuegosmondodb.dto.LoginRequest;
 import psp.videojuegosmondodb.dto.LoginResponse;
+import psp.videojuegosmondodb.dto.RefreshRequest;
 import psp.videojuegosmondodb.dto.RegistroRequest;
 import psp.videojuegosmondodb.dto.UsuarioDTO;
 import psp.videojuegosmondodb.service.AuthService;
+import psp.videojuegosmondodb.util.JwtUtil;
 
 /**
  * Controlador para autenticación y registro
@@ -44,4 +48,27 @@ public class AuthController {
     public ResponseEntity<UsuarioDTO> registro(@Valid @RequestBody RegistroRequest registroRequest) {
         return ResponseEntity.ok(authService.registro(registroRequest));
     }
+
+    /**
+     * Canjea un token de refresco por un nuevo par de tokens
+     * @param refreshRequest token de refresco
+     * @return respuesta con los nuevos tokens y datos del usuario
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refrescar(@Valid @RequestBody RefreshRequest refreshRequest) {
+        return ResponseEntity.ok(authService.refrescar(refreshRequest.getRefreshToken()));
+    }
+
+    /**
+     * Cierra la sesión revocando el token de acceso y, opcionalmente, el de refresco
+     * @param claims claims del token de acceso, verificados por el filtro JWT
+     * @param refreshRequest token de refresco, opcional
+     * @return respuesta vacía
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestAttribute(JwtUtil.ATRIBUTO_CLAIMS) Claims claims,
+                                       @RequestBody(required = false) RefreshRequest refreshRequest) {
+        authService.logout(claims, refreshRequest != null ? refreshRequest.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
@@ -5,11 +5,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import psp.videojuegosmondodb.dto.ReconciliacionDTO;
 import psp.videojuegosmondodb.dto.ValoracionDTO;
 import psp.videojuegosmondodb.model.Usuario;
+import psp.videojuegosmondodb.service.ReconciliacionValoraciones;
 import psp.videojuegosmondodb.service.ValoracionService;
+import psp.videojuegosmondodb.util.Paginacion;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador para operaciones con valoraciones
@@ -19,19 +23,29 @@ import java.util.List;
 public class ValoracionController {
 
     private final ValoracionService valoracionService;
+    private final ReconciliacionValoraciones reconciliacionValoraciones;
 
-    public ValoracionController(ValoracionService valoracionService) {
+    public ValoracionController(ValoracionService valoracionService,
+                                ReconciliacionValoraciones reconciliacionValoraciones) {
         this.valoracionService = valoracionService;
+        this.reconciliacionValoraciones = reconciliacionValoraciones;
     }
 
     /**
-     * Obtiene todas las valoraciones de un videojuego
+     * Obtiene una página de valoraciones de un videojuego
      * @param id ID del videojuego
-     * @return lista de valoraciones
+     * @param orden "recientes" (por defecto) o "puntuacion"
+     * @param after cursor devuelto en la cabecera X-Next-Cursor de la página anterior (opcional)
+     * @param limit tamaño de página (opcional)
+     * @return lista de valoraciones de la página
      */
     @GetMapping("/videojuego/{id}")
-    public ResponseEntity<List<ValoracionDTO>> obtenerPorVideojuego(@PathVariable String id) {
-        return ResponseEntity.ok(valoracionService.obtenerPorVideojuego(id));
+    public ResponseEntity<List<ValoracionDTO>> obtenerPorVideojuego(
+            @PathVariable String id,
+            @RequestParam(required = false) String orden,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return Paginacion.respuesta(valoracionService.obtenerPorVideojuego(id, orden, after, limit));
     }
 
     /**
@@ -44,6 +58,28 @@ public class ValoracionController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ValoracionDTO> crear(@Valid @RequestBody ValoracionDTO valoracionDTO, Authentication authentication) {
         Usuario usuario = (Usuario) authentication.getPrincipal();
-        return ResponseEntity.ok(valoracionService.crear(valoracionDTO, usuario.getId()));
+        return ResponseEntity.ok(valoracionService.crear(valoracionDTO, usuario));
+    }
+
+    /**
+     * Reconstruye las estadísticas de valoración de todos los videojuegos
+     * @return resumen de la reconstrucción
+     */
+    @PostMapping("/reconciliar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReconciliacionDTO> reconciliar() {
+        return ResponseEntity.ok(reconciliacionValoraciones.reconciliar());
+    }
+
+    /**
+     * Convierte las valoraciones guardadas con DBRef a usuario y videojuego en copias embebidas.
+     * Debe ejecutarse una vez tras desplegar esta versión: también elimina los índices sobre las referencias
+     * antiguas y crea los de usuario.id y videojuego.id, incluido el único que impide valorar dos veces
+     * @return número de valoraciones convertidas
+     */
+    @PostMapping("/migrar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Long>> migrar() {
+        return ResponseEntity.ok(Map.of("migradas", valoracionService.migrarReferencias()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package psp.videojuegosmondodb.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import psp.videojuegosmondodb.dto.ValoracionDTO;
+import psp.videojuegosmondodb.service.CatalogoReactivoService;
+import reactor.core.publisher.Flux;
+
+/**
+ * Lecturas no bloqueantes de valoraciones (perfil "reactivo"), enviadas como JSON delimitado
+ * por saltos de línea al ritmo al que el cliente las recibe
+ */
+@RestController
+@RequestMapping("/reactivo/valoraciones")
+@Profile("reactivo")
+public class ValoracionReactivoController {
+
+    private final CatalogoReactivoService catalogoReactivoService;
+
+    public ValoracionReactivoController(CatalogoReactivoService catalogoReactivoService) {
+        this.catalogoReactivoService = catalogoReactivoService;
+    }
+
+    /**
+     * Recorre las valoraciones de un videojuego
+     * @param id ID del videojuego
+     * @param orden "recientes" (por defecto) o "puntuacion"
+     * @param after cursor X-Next-Cursor de los listados paginados desde el que continuar (opcional)
+     * @param limit número máximo de valoraciones (opcional)
+     * @return flujo de valoraciones en formato NDJSON
+     */
+    @GetMapping(value = "/videojuego/{id}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ValoracionDTO> recorrerPorVideojuego(
+            @PathVariable String id,
+            @RequestParam(required = false) String orden,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return catalogoReactivoService.recorrerValoraciones(id, orden, after, limit);
+    }
+}
@@ -1,13 +1,31 @@
 package psp.videojuegosmondodb.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import psp.videojuegosmondodb.dto.FacetasDTO;
+import psp.videojuegosmondodb.dto.ResultadoImportacionDTO;
+import psp.videojuegosmondodb.dto.SugerenciaDTO;
 import psp.videojuegosmondodb.dto.VideojuegoDTO;
+import psp.videojuegosmondodb.service.ImportadorVideojuegos;
 import psp.videojuegosmondodb.service.VideojuegoService;
+import psp.videojuegosmondodb.util.Paginacion;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador para operaciones con videojuegos
@@ -16,19 +34,31 @@ import java.util.List;
 @RequestMapping("/videojuegos")
 public class VideojuegoController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final VideojuegoService videojuegoService;
+    private final ImportadorVideojuegos importadorVideojuegos;
+    private final ObjectMapper objectMapper;
 
-    public VideojuegoController(VideojuegoService videojuegoService) {
+    public VideojuegoController(VideojuegoService videojuegoService,
+                                ImportadorVideojuegos importadorVideojuegos,
+                                ObjectMapper objectMapper) {
         this.videojuegoService = videojuegoService;
+        this.importadorVideojuegos = importadorVideojuegos;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Obtiene todos los videojuegos
-     * @return lista de videojuegos
+     * Obtiene una página de videojuegos ordenados por título
+     * @param after cursor devuelto en la cabecera X-Next-Cursor de la página anterior (opcional)
+     * @param limit tamaño de página (opcional)
+     * @return lista de videojuegos de la página
      */
     @GetMapping
-    public ResponseEntity<List<VideojuegoDTO>> obtenerTodos() {
-        return ResponseEntity.ok(videojuegoService.obtenerTodos());
+    public ResponseEntity<List<VideojuegoDTO>> obtenerTodos(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return Paginacion.respuesta(videojuegoService.obtenerTodos(after, limit));
     }
 
     /**
@@ -44,26 +74,118 @@ public class VideojuegoController {
     /**
      * Busca videojuegos por título
      * @param titulo texto a buscar en el título
+     * @param after cursor de la página anterior (opcional)
+     * @param limit tamaño de página (opcional)
      * @return lista de videojuegos que coinciden
      */
     @GetMapping("/buscar")
-    public ResponseEntity<List<VideojuegoDTO>> buscarPorTitulo(@RequestParam String titulo) {
-        return ResponseEntity.ok(videojuegoService.buscarPorTitulo(titulo));
+    public ResponseEntity<List<VideojuegoDTO>> buscarPorTitulo(
+            @RequestParam String titulo,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return Paginacion.respuesta(videojuegoService.buscarPorTitulo(titulo, after, limit));
     }
 
     /**
-     * Filtra videojuegos por género, plataforma y/o desarrollador
-     * @param genero ID del género (opcional)
+     * Sugiere títulos de videojuegos mientras el usuario escribe
+     * @param prefijo comienzo del título
+     * @param limit número máximo de sugerencias (opcional, máximo 50)
+     * @return lista de sugerencias ordenadas por popularidad
+     */
+    @GetMapping("/autocompletar")
+    public ResponseEntity<List<SugerenciaDTO>> autocompletar(
+            @RequestParam String prefijo,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(videojuegoService.autocompletar(prefijo, limit));
+    }
+
+    /**
+     * Filtra videojuegos por cualquier combinación de género, plataforma, desarrollador,
+     * calificación PEGI y fecha de lanzamiento
+     * @param genero ID o nombre del género (opcional)
      * @param plataforma plataforma (opcional)
-     * @param desarrollador ID del desarrollador (opcional)
+     * @param desarrollador ID o nombre del desarrollador (opcional)
+     * @param pegi calificación PEGI (opcional)
+     * @param desde fecha de lanzamiento mínima (opcional)
+     * @param hasta fecha de lanzamiento máxima (opcional)
+     * @param after cursor de la página anterior (opcional)
+     * @param limit tamaño de página (opcional)
      * @return lista de videojuegos filtrados
      */
     @GetMapping("/filtrar")
     public ResponseEntity<List<VideojuegoDTO>> filtrar(
             @RequestParam(required = false) String genero,
             @RequestParam(required = false) String plataforma,
-            @RequestParam(required = false) String desarrollador) {
-        return ResponseEntity.ok(videojuegoService.filtrar(genero, plataforma, desarrollador));
+            @RequestParam(required = false) String desarrollador,
+            @RequestParam(required = false) String pegi,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return Paginacion.respuesta(videojuegoService.filtrar(
+                genero, plataforma, desarrollador, pegi, desde, hasta, after, limit));
+    }
+
+    /**
+     * Filtra videojuegos y devuelve, en la misma respuesta, cuántos cumplen el filtro
+     * por género, plataforma, desarrollador y calificación PEGI
+     * @param genero ID o nombre del género (opcional)
+     * @param plataforma plataforma (opcional)
+     * @param desarrollador ID o nombre del desarrollador (opcional)
+     * @param pegi calificación PEGI (opcional)
+     * @param desde fecha de lanzamiento mínima (opcional)
+     * @param hasta fecha de lanzamiento máxima (opcional)
+     * @param after cursor de la página anterior (opcional)
+     * @param limit tamaño de página (opcional)
+     * @return página de videojuegos filtrados y conteos por faceta
+     */
+    @GetMapping("/facetas")
+    public ResponseEntity<FacetasDTO> facetas(
+            @RequestParam(required = false) String genero,
+            @RequestParam(required = false) String plataforma,
+            @RequestParam(required = false) String desarrollador,
+            @RequestParam(required = false) String pegi,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        FacetasDTO facetas = videojuegoService.facetas(
+                genero, plataforma, desarrollador, pegi, desde, hasta, after, limit);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (facetas.getSiguienteCursor() != null) {
+            builder.header(Paginacion.CABECERA_SIGUIENTE_CURSOR, facetas.getSiguienteCursor());
+        }
+        return builder.body(facetas);
+    }
+
+    /**
+     * Exporta el catálogo completo como JSON delimitado por saltos de línea (un videojuego por línea).
+     * La respuesta se escribe a medida que se lee el cursor de MongoDB, sin acumular el catálogo en memoria
+     * @return flujo de videojuegos en formato NDJSON
+     */
+    @GetMapping("/exportar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        // Sin vaciado tras cada valor: el búfer de la respuesta decide cuándo enviar
+        ObjectWriter writer = objectMapper.writerFor(VideojuegoDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        StreamingResponseBody cuerpo = salida -> {
+            try (JsonGenerator generador = writer.createGenerator(salida)) {
+                videojuegoService.exportar(videojuego -> {
+                    try {
+                        writer.writeValue(generador, videojuego);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generador.writeRaw('\n');
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"videojuegos.ndjson\"")
+                .body(cuerpo);
     }
 
     /**
@@ -77,6 +199,29 @@ public class VideojuegoController {
         return ResponseEntity.ok(videojuegoService.crear(videojuegoDTO));
     }
 
+    /**
+     * Importa videojuegos de forma masiva desde un array JSON o un fichero NDJSON (un videojuego por línea).
+     * Las filas con error se informan en la respuesta y no impiden importar las demás
+     * @param entrada cuerpo de la petición
+     * @return resumen de la importación con el error de cada fila rechazada
+     */
+    @PostMapping(value = "/importar", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResultadoImportacionDTO> importar(InputStream entrada) {
+        return ResponseEntity.ok(importadorVideojuegos.importar(entrada));
+    }
+
+    /**
+     * Convierte los videojuegos guardados con DBRef a género y desarrollador en copias embebidas.
+     * Puede lanzarse con la aplicación en servicio: mientras tanto las lecturas completan las referencias pendientes
+     * @return número de videojuegos convertidos
+     */
+    @PostMapping("/migrar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Long>> migrar() {
+        return ResponseEntity.ok(Map.of("migrados", videojuegoService.migrarReferencias()));
+    }
+
     /**
      * Actualiza un videojuego existente
      * @param id ID del videojuego
@@ -0,0 +1,73 @@
+package psp.videojuegosmondodb.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import psp.videojuegosmondodb.dto.VideojuegoDTO;
+import psp.videojuegosmondodb.service.CatalogoReactivoService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Lecturas no bloqueantes del catálogo (perfil "reactivo").
+ * Los listados se envían como JSON delimitado por saltos de línea: cada videojuego se escribe en
+ * cuanto llega de MongoDB y el siguiente no se pide hasta haber escrito el anterior, así que un
+ * cliente lento frena la lectura del cursor en lugar de acumular resultados en memoria.
+ * Mientras se espera a MongoDB la petición no ocupa ningún hilo
+ */
+@RestController
+@RequestMapping("/reactivo/videojuegos")
+@Profile("reactivo")
+public class VideojuegoReactivoController {
+
+    private final CatalogoReactivoService catalogoReactivoService;
+
+    public VideojuegoReactivoController(CatalogoReactivoService catalogoReactivoService) {
+        this.catalogoReactivoService = catalogoReactivoService;
+    }
+
+    /**
+     * Recorre los videojuegos ordenados por título, con los mismos filtros que /videojuegos/filtrar
+     * @param titulo texto contenido en el título (opcional)
+     * @param genero ID o nombre del género (opcional)
+     * @param plataforma plataforma (opcional)
+     * @param desarrollador ID o nombre del desarrollador (opcional)
+     * @param pegi calificación PEGI (opcional)
+     * @param desde fecha de lanzamiento mínima (opcional)
+     * @param hasta fecha de lanzamiento máxima (opcional)
+     * @param after cursor X-Next-Cursor de los listados paginados desde el que continuar (opcional)
+     * @param limit número máximo de videojuegos (opcional)
+     * @return flujo de videojuegos en formato NDJSON
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<VideojuegoDTO> recorrer(
+            @RequestParam(required = false) String titulo,
+            @RequestParam(required = false) String genero,
+            @RequestParam(required = false) String plataforma,
+            @RequestParam(required = false) String desarrollador,
+            @RequestParam(required = false) String pegi,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return catalogoReactivoService.recorrer(titulo, genero, plataforma, desarrollador, pegi,
+                desde, hasta, after, limit);
+    }
+
+    /**
+     * Obtiene un videojuego por su ID
+     * @param id ID del videojuego
+     * @return el videojuego
+     */
+    @GetMapping("/{id}")
+    public Mono<VideojuegoDTO> obtenerPorId(@PathVariable String id) {
+        return catalogoReactivoService.obtenerPorId(id);
+    }
+}
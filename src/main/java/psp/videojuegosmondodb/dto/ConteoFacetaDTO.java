@@ -0,0 +1,21 @@
+package psp.videojuegosmondodb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el número de videojuegos que tienen un valor de faceta
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConteoFacetaDTO {
+
+    // ID del género o desarrollador, o el propio valor en plataforma y PEGI
+    private String valor;
+
+    private String nombre;
+
+    private long total;
+}
@@ -0,0 +1,19 @@
+package psp.videojuegosmondodb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el error de una fila de la importación masiva
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorImportacionDTO {
+
+    // Posición de la fila en el fichero, empezando en 1
+    private long fila;
+
+    private String mensaje;
+}
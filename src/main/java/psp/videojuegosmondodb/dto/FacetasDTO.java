@@ -0,0 +1,29 @@
+package psp.videojuegosmondodb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de una búsqueda facetada: página de resultados y conteos de cada faceta
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetasDTO {
+
+    private List<VideojuegoDTO> contenido;
+
+    // Cursor opaco de la siguiente página, null si no hay más resultados
+    private String siguienteCursor;
+
+    private List<ConteoFacetaDTO> generos;
+
+    private List<ConteoFacetaDTO> plataformas;
+
+    private List<ConteoFacetaDTO> desarrolladores;
+
+    private List<ConteoFacetaDTO> calificacionesPEGI;
+}
@@ -18,4 +18,5 @@ public class LoginResponse {
     private String email;
     private Rol rol;
     private String token;
+    private String refreshToken;
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package psp.videojuegosmondodb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para una página de resultados paginados por cursor
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    private List<T> contenido;
+
+    // Cursor opaco de la siguiente página, null si no hay más resultados
+    private String siguienteCursor;
+}
@@ -0,0 +1,20 @@
+package psp.videojuegosmondodb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de la reconstrucción de las estadísticas de valoración
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliacionDTO {
+
+    private long videojuegos;
+
+    private long lotes;
+
+    private long duracionMs;
+}
@@ -0,0 +1,18 @@
+package psp.videojuegosmondodb.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para la solicitud de refresco de tokens y de cierre de sesión
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshRequest {
+
+    @NotBlank(message = "El token de refresco es obligatorio")
+    private String refreshToken;
+}
\ No newline at end of file
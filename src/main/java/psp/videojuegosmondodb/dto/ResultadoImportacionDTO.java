@@ -0,0 +1,26 @@
+package psp.videojuegosmondodb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado de una importación masiva de videojuegos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacionDTO {
+
+    private long procesados;
+
+    private long importados;
+
+    private long fallidos;
+
+    // Detalle de las primeras filas con error
+    private List<ErrorImportacionDTO> errores = new ArrayList<>();
+}
@@ -8,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 /**
  * DTO para transferencia de datos de videojuegos
@@ -44,4 +45,11 @@ public class VideojuegoDTO {
 
     // Nuevo campo para la URL de la imagen de portada
     private String imagenURL;
+
+    // Campos calculados a partir de las valoraciones (solo lectura)
+    private Double puntuacionMedia;
+
+    private long totalValoraciones;
+
+    private Map<String, Long> distribucion;
 }
\ No newline at end of file
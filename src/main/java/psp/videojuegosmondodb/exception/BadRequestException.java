@@ -3,7 +3,7 @@ package psp.videojuegosmondodb.exception;
 /**
  * Excepción lanzada cuando la solicitud es incorrecta
  */
-public class BadRequestException extends RuntimeException {
+public class BadRequestException extends DomainException {
 
     public BadRequestException(String message) {
         super(message);
@@ -0,0 +1,13 @@
+package psp.videojuegosmondodb.exception;
+
+/**
+ * Base de las excepciones de dominio de la API. Se lanzan para controlar el flujo hacia una
+ * respuesta de error (404, 409, 400...) y el manejador global solo usa su mensaje, así que no
+ * rellenan la traza de pila: crearlas cuesta lo mismo que cualquier otro objeto.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
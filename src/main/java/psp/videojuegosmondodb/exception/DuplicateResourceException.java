@@ -3,7 +3,7 @@ package psp.videojuegosmondodb.exception;
 /**
  * Excepción lanzada cuando se intenta crear un recurso que ya existe
  */
-public class DuplicateResourceException extends RuntimeException {
+public class DuplicateResourceException extends DomainException {
 
     public DuplicateResourceException(String message) {
         super(message);
@@ -0,0 +1,159 @@
+package psp.videojuegosmondodb.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Escritor compartido de respuestas de error en JSON, con la misma forma que
+ * {@link GlobalExceptionHandler.ErrorResponse}: timestamp, status, error, message y path.
+ * Las partes fijas de cada tipo de error se serializan una sola vez en {@link TipoError} y la
+ * marca de tiempo, con resolución de segundos, se reutiliza durante todo el segundo; por respuesta
+ * solo se escapan el mensaje y la ruta y se copian los fragmentos en un único array.
+ */
+@Component
+public class ErrorResponseWriter {
+
+    private static final JsonStringEncoder CODIFICADOR = JsonStringEncoder.getInstance();
+    private static final byte[] CAMPO_MENSAJE = bytes(",\"message\":");
+    private static final byte[] CAMPO_RUTA = bytes(",\"path\":");
+    private static final byte[] FIN = bytes("}");
+    private static final byte[] NULO = bytes("null");
+
+    private final ZoneId zona = ZoneId.systemDefault();
+    private volatile MarcaTiempo marcaTiempo = new MarcaTiempo(Long.MIN_VALUE, new byte[0]);
+
+    /**
+     * Prepara un tipo de error cuyo mensaje cambia en cada respuesta
+     * @param status código de estado HTTP
+     * @param error descripción breve del error
+     * @return tipo de error con sus partes fijas ya serializadas
+     */
+    public static TipoError tipo(HttpStatus status, String error) {
+        return new TipoError(status, bytes(",\"status\":" + status.value() + ",\"error\":" + cadena(error)), null);
+    }
+
+    /**
+     * Prepara un tipo de error con mensaje fijo
+     * @param status código de estado HTTP
+     * @param error descripción breve del error
+     * @param mensaje mensaje de la respuesta
+     * @return tipo de error con sus partes fijas, mensaje incluido, ya serializadas
+     */
+    public static TipoError tipo(HttpStatus status, String error, String mensaje) {
+        TipoError tipo = tipo(status, error);
+        return new TipoError(status, tipo.cabecera(), bytes(",\"message\":" + cadena(mensaje)));
+    }
+
+    /**
+     * Serializa el cuerpo de una respuesta de error
+     * @param tipo tipo de error
+     * @param mensaje mensaje de la respuesta; se ignora si el tipo tiene mensaje fijo
+     * @param ruta ruta de la petición
+     * @return cuerpo JSON en UTF-8
+     */
+    public byte[] cuerpo(TipoError tipo, String mensaje, String ruta) {
+        byte[] marca = marcaTiempo();
+        byte[] textoMensaje = tipo.mensaje() != null ? null : escapar(mensaje);
+        byte[] textoRuta = escapar(ruta);
+
+        int longitud = marca.length + tipo.cabecera().length + CAMPO_RUTA.length + longitudCadena(textoRuta) + FIN.length
+                + (tipo.mensaje() != null ? tipo.mensaje().length : CAMPO_MENSAJE.length + longitudCadena(textoMensaje));
+        byte[] cuerpo = new byte[longitud];
+        int posicion = copiar(marca, cuerpo, 0);
+        posicion = copiar(tipo.cabecera(), cuerpo, posicion);
+        if (tipo.mensaje() != null) {
+            posicion = copiar(tipo.mensaje(), cuerpo, posicion);
+        } else {
+            posicion = copiar(CAMPO_MENSAJE, cuerpo, posicion);
+            posicion = copiarCadena(textoMensaje, cuerpo, posicion);
+        }
+        posicion = copiar(CAMPO_RUTA, cuerpo, posicion);
+        posicion = copiarCadena(textoRuta, cuerpo, posicion);
+        copiar(FIN, cuerpo, posicion);
+        return cuerpo;
+    }
+
+    /**
+     * Escribe una respuesta de error directamente en la respuesta HTTP, para los filtros y
+     * manejadores de seguridad que actúan fuera de los controladores
+     * @param response respuesta HTTP
+     * @param tipo tipo de error
+     * @param mensaje mensaje de la respuesta; se ignora si el tipo tiene mensaje fijo
+     * @param ruta ruta de la petición
+     */
+    public void escribir(HttpServletResponse response, TipoError tipo, String mensaje, String ruta) throws IOException {
+        byte[] cuerpo = cuerpo(tipo, mensaje, ruta);
+        response.setStatus(tipo.status().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(cuerpo.length);
+        response.getOutputStream().write(cuerpo);
+    }
+
+    /**
+     * Fragmento inicial con la marca de tiempo del segundo actual, recalculado solo al cambiar de segundo
+     */
+    private byte[] marcaTiempo() {
+        long segundo = System.currentTimeMillis() / 1000;
+        MarcaTiempo actual = marcaTiempo;
+        if (actual.segundo() != segundo) {
+            LocalDateTime ahora = LocalDateTime.ofInstant(Instant.ofEpochSecond(segundo), zona);
+            actual = new MarcaTiempo(segundo,
+                    bytes("{\"timestamp\":\"" + DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(ahora) + "\""));
+            marcaTiempo = actual;
+        }
+        return actual.fragmento();
+    }
+
+    private static byte[] escapar(String texto) {
+        return texto != null ? CODIFICADOR.quoteAsUTF8(texto) : null;
+    }
+
+    private static int longitudCadena(byte[] texto) {
+        return texto != null ? texto.length + 2 : NULO.length;
+    }
+
+    private static int copiarCadena(byte[] texto, byte[] destino, int posicion) {
+        if (texto == null) {
+            return copiar(NULO, destino, posicion);
+        }
+        destino[posicion++] = '"';
+        posicion = copiar(texto, destino, posicion);
+        destino[posicion++] = '"';
+        return posicion;
+    }
+
+    private static int copiar(byte[] origen, byte[] destino, int posicion) {
+        System.arraycopy(origen, 0, destino, posicion, origen.length);
+        return posicion + origen.length;
+    }
+
+    private static String cadena(String texto) {
+        return texto != null ? "\"" + new String(CODIFICADOR.quoteAsString(texto)) + "\"" : "null";
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Partes fijas ya serializadas de un tipo de error
+     * @param status código de estado HTTP
+     * @param cabecera fragmento con status y error
+     * @param mensaje fragmento con el mensaje, o null si el mensaje cambia en cada respuesta
+     */
+    public record TipoError(HttpStatus status, byte[] cabecera, byte[] mensaje) {
+    }
+
+    private record MarcaTiempo(long segundo, byte[] fragmento) {
+    }
+}
@@ -1,7 +1,9 @@
 package psp.videojuegosmondodb.exception;
 
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -21,22 +23,31 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    // Respuestas 401/403/404 preserializadas: son las que dispara el tráfico de sondeo con IDs aleatorios
+    private static final ErrorResponseWriter.TipoError NO_ENCONTRADO =
+            ErrorResponseWriter.tipo(HttpStatus.NOT_FOUND, "Recurso no encontrado");
+    private static final ErrorResponseWriter.TipoError ACCESO_DENEGADO =
+            ErrorResponseWriter.tipo(HttpStatus.FORBIDDEN, "Acceso denegado",
+                    "No tiene permisos para realizar esta operación");
+    private static final ErrorResponseWriter.TipoError CREDENCIALES_INCORRECTAS =
+            ErrorResponseWriter.tipo(HttpStatus.UNAUTHORIZED, "Credenciales incorrectas",
+                    "Email o contraseña incorrectos");
+    private static final ErrorResponseWriter.TipoError TOKEN_NO_VALIDO =
+            ErrorResponseWriter.tipo(HttpStatus.UNAUTHORIZED, "Token no válido");
+
+    private final ErrorResponseWriter errorResponseWriter;
+
+    public GlobalExceptionHandler(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
     /**
      * Maneja excepciones de recurso no encontrado
      */
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleResourceNotFoundException(
+    public ResponseEntity<byte[]> handleResourceNotFoundException(
             ResourceNotFoundException exception, WebRequest request) {
-        
-        ErrorResponse errorResponse = new ErrorResponse(
-                LocalDateTime.now(),
-                HttpStatus.NOT_FOUND.value(),
-                "Recurso no encontrado",
-                exception.getMessage(),
-                request.getDescription(false)
-        );
-        
-        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+        return respuesta(NO_ENCONTRADO, exception.getMessage(), request);
     }
 
     /**
@@ -119,39 +130,68 @@ public class GlobalExceptionHandler {
     }
 
     /**
-     * Maneja excepciones de acceso denegado
+     * Maneja las peticiones de una operación que ya está en curso
      */
-    @ExceptionHandler(AccessDeniedException.class)
-    public ResponseEntity<ErrorResponse> handleAccessDeniedException(
-            AccessDeniedException exception, WebRequest request) {
+    @ExceptionHandler(OperationInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleOperationInProgressException(
+            OperationInProgressException exception, WebRequest request) {
         
         ErrorResponse errorResponse = new ErrorResponse(
                 LocalDateTime.now(),
-                HttpStatus.FORBIDDEN.value(),
-                "Acceso denegado",
-                "No tiene permisos para realizar esta operación",
+                HttpStatus.CONFLICT.value(),
+                "Operación en curso",
+                exception.getMessage(),
                 request.getDescription(false)
         );
         
-        return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja excepciones de acceso denegado
+     */
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<byte[]> handleAccessDeniedException(
+            AccessDeniedException exception, WebRequest request) {
+        return respuesta(ACCESO_DENEGADO, null, request);
     }
 
     /**
      * Maneja excepciones de credenciales incorrectas
      */
     @ExceptionHandler(BadCredentialsException.class)
-    public ResponseEntity<ErrorResponse> handleBadCredentialsException(
+    public ResponseEntity<byte[]> handleBadCredentialsException(
             BadCredentialsException exception, WebRequest request) {
+        return respuesta(CREDENCIALES_INCORRECTAS, null, request);
+    }
+
+    /**
+     * Maneja excepciones de token no válido
+     */
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<byte[]> handleInvalidTokenException(
+            InvalidTokenException exception, WebRequest request) {
+        return respuesta(TOKEN_NO_VALIDO, exception.getMessage(), request);
+    }
+
+    /**
+     * Maneja los rechazos por saturación: el cliente puede reintentar pasado un momento
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(
+            ServiceUnavailableException exception, WebRequest request) {
         
         ErrorResponse errorResponse = new ErrorResponse(
                 LocalDateTime.now(),
-                HttpStatus.UNAUTHORIZED.value(),
-                "Credenciales incorrectas",
-                "Email o contraseña incorrectos",
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Servicio no disponible",
+                exception.getMessage(),
                 request.getDescription(false)
         );
         
-        return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
     }
 
     /**
@@ -172,6 +212,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    /**
+     * Respuesta con el cuerpo ya serializado, que se envía tal cual sin pasar por Jackson
+     */
+    private ResponseEntity<byte[]> respuesta(ErrorResponseWriter.TipoError tipo, String mensaje, WebRequest request) {
+        return ResponseEntity.status(tipo.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponseWriter.cuerpo(tipo, mensaje, request.getDescription(false)));
+    }
+
     /**
      * Clase interna para representar la respuesta de error
      */
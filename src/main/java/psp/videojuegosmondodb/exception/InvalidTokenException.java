@@ -0,0 +1,11 @@
+package psp.videojuegosmondodb.exception;
+
+/**
+ * Excepción lanzada cuando un token no es válido, ha caducado o ha sido revocado
+ */
+public class InvalidTokenException extends DomainException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package psp.videojuegosmondodb.exception;
+
+/**
+ * Excepción lanzada cuando se pide una operación que ya se está ejecutando y no admite
+ * ejecuciones simultáneas
+ */
+public class OperationInProgressException extends DomainException {
+
+    public OperationInProgressException(String message) {
+        super(message);
+    }
+}
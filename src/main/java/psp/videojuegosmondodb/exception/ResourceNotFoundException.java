@@ -3,13 +3,13 @@ package psp.videojuegosmondodb.exception;
 /**
  * Excepción lanzada cuando no se encuentra un recurso
  */
-public class ResourceNotFoundException extends RuntimeException {
+public class ResourceNotFoundException extends DomainException {
 
     public ResourceNotFoundException(String message) {
         super(message);
     }
 
     public ResourceNotFoundException(String resourceName, String fieldName, Object fieldValue) {
-        super(String.format("%s no encontrado con %s: '%s'", resourceName, fieldName, fieldValue));
+        super(resourceName + " no encontrado con " + fieldName + ": '" + fieldValue + "'");
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package psp.videojuegosmondodb.exception;
+
+/**
+ * Excepción lanzada cuando el servidor rechaza una operación por estar saturado
+ */
+public class ServiceUnavailableException extends DomainException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package psp.videojuegosmondodb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+/**
+ * Copia reducida de un desarrollador embebida en los videojuegos.
+ * Se guarda como { id, nombreEstudio } y se mantiene al día cuando el estudio cambia de nombre.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DesarrolladorResumen {
+
+    @Field(value = "id", targetType = FieldType.OBJECT_ID)
+    private String id;
+
+    private String nombreEstudio;
+}
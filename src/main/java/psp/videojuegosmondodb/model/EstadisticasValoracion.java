@@ -0,0 +1,25 @@
+package psp.videojuegosmondodb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Agregados de las valoraciones de un videojuego, guardados dentro del propio videojuego
+ * y mantenidos con $inc al crear cada valoración
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasValoracion {
+
+    private long suma;
+
+    private long total;
+
+    // Número de valoraciones por puntuación, con claves "1" a "10"
+    private Map<String, Long> histograma = new HashMap<>();
+}
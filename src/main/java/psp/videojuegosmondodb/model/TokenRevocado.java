@@ -0,0 +1,29 @@
+package psp.videojuegosmondodb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Token JWT revocado antes de su expiración (cierre de sesión o refresco ya usado).
+ * Solo hace falta recordarlo hasta que expira: el índice TTL sobre la fecha de expiración
+ * lo elimina entonces.
+ */
+@Document(collection = "tokensRevocados")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocado {
+
+    // Identificador (jti) del token
+    @Id
+    private String id;
+
+    @Indexed(expireAfter = "0s")
+    private Date expiracion;
+}
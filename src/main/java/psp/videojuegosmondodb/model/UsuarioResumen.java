@@ -0,0 +1,22 @@
+package psp.videojuegosmondodb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+/**
+ * Copia reducida de un usuario embebida en los documentos que lo referencian.
+ * Se guarda como { id, nombre } y se mantiene al día cuando el usuario cambia de nombre.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioResumen {
+
+    @Field(value = "id", targetType = FieldType.OBJECT_ID)
+    private String id;
+
+    private String nombre;
+}
@@ -8,7 +8,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -18,19 +17,20 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@CompoundIndex(def = "{'usuario': 1, 'videojuego': 1}", unique = true)
+@CompoundIndex(def = "{'usuario.id': 1, 'videojuego.id': 1}", unique = true)
+@CompoundIndex(name = "videojuego_id", def = "{'videojuego.id': 1, '_id': 1}")
+@CompoundIndex(name = "videojuego_puntuacion_id", def = "{'videojuego.id': 1, 'puntuacion': 1, '_id': 1}")
 public class Valoracion {
 
     @Id
     private String id;
 
-    @DBRef
+    // Copias embebidas con los datos que se muestran, en lugar de referencias a otros documentos
     @NotNull(message = "El usuario es obligatorio")
-    private Usuario usuario;
+    private UsuarioResumen usuario;
 
-    @DBRef
     @NotNull(message = "El videojuego es obligatorio")
-    private Videojuego videojuego;
+    private VideojuegoResumen videojuego;
 
     @NotNull(message = "La puntuación es obligatoria")
     @Min(value = 1, message = "La puntuación mínima es 1")
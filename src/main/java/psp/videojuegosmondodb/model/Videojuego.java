@@ -7,8 +7,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
@@ -20,6 +20,9 @@ import java.time.LocalDate;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@CompoundIndex(name = "titulo_id", def = "{'titulo': 1, '_id': 1}")
+@CompoundIndex(name = "genero_id", def = "{'genero.id': 1}")
+@CompoundIndex(name = "desarrollador_id", def = "{'desarrollador.id': 1}")
 public class Videojuego {
 
     @Id
@@ -29,13 +32,12 @@ public class Videojuego {
     @Indexed
     private String titulo;
 
-    @DBRef
+    // Copias embebidas: un listado se resuelve leyendo solo esta colección
     @NotNull(message = "El desarrollador es obligatorio")
-    private Desarrollador desarrollador;
+    private DesarrolladorResumen desarrollador;
 
-    @DBRef
     @NotNull(message = "El género es obligatorio")
-    private Genero genero;
+    private GeneroResumen genero;
 
     @NotBlank(message = "La plataforma es obligatoria")
     private String plataforma;
@@ -49,4 +51,7 @@ public class Videojuego {
 
     // Nuevo campo para la URL de la imagen de portada
     private String imagenURL;
+
+    // Agregados de valoraciones, solo se modifican con operaciones atómicas
+    private EstadisticasValoracion estadisticas;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package psp.videojuegosmondodb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+/**
+ * Copia reducida de un videojuego embebida en los documentos que lo referencian.
+ * Se guarda como { id, titulo } y se mantiene al día cuando el videojuego cambia de título.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VideojuegoResumen {
+
+    @Field(value = "id", targetType = FieldType.OBJECT_ID)
+    private String id;
+
+    private String titulo;
+}
@@ -0,0 +1,13 @@
+package psp.videojuegosmondodb.repository;
+
+import java.util.Map;
+
+/**
+ * Número de videojuegos por valor de cada faceta.
+ * Género y desarrollador se indexan por ID; plataforma y calificación PEGI por su valor.
+ */
+public record ConteosFacetas(Map<String, Long> generos,
+                             Map<String, Long> plataformas,
+                             Map<String, Long> desarrolladores,
+                             Map<String, Long> calificacionesPEGI) {
+}
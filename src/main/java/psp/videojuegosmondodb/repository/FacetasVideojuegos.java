@@ -0,0 +1,11 @@
+package psp.videojuegosmondodb.repository;
+
+import psp.videojuegosmondodb.model.Videojuego;
+
+import java.util.List;
+
+/**
+ * Resultado de una búsqueda facetada: la página pedida y los conteos de cada faceta
+ */
+public record FacetasVideojuegos(List<Videojuego> pagina, ConteosFacetas conteos) {
+}
@@ -0,0 +1,142 @@
+package psp.videojuegosmondodb.repository;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import psp.videojuegosmondodb.util.ReferenciaUtil;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Constructor de filtros dinámicos sobre la colección de videojuegos.
+ * Cada dimensión es opcional; los valores nulos o vacíos se ignoran y el resultado
+ * es un único Criteria que se resuelve en una sola consulta.
+ * Los nombres de campo y valores son los almacenados, de modo que el criterio sirve
+ * tanto para consultas tipadas como para consultas sobre documentos sin mapear.
+ */
+public class FiltroVideojuegos {
+
+    private final List<Criteria> criterios = new ArrayList<>();
+    // Valores aplicados por dimensión
+    private final Map<String, String> valores = new HashMap<>();
+
+    /**
+     * Filtra por el ID del género embebido
+     * @param generoId ID del género
+     * @return este filtro
+     */
+    public FiltroVideojuegos genero(String generoId) {
+        if (tieneValor(generoId)) {
+            // Usa el índice { genero.id: 1 } sin leer el género
+            criterios.add(Criteria.where("genero.id").is(ReferenciaUtil.idMongo(generoId)));
+            valores.put("genero", generoId);
+        }
+        return this;
+    }
+
+    /**
+     * Filtra por el ID del desarrollador embebido
+     * @param desarrolladorId ID del desarrollador
+     * @return este filtro
+     */
+    public FiltroVideojuegos desarrollador(String desarrolladorId) {
+        if (tieneValor(desarrolladorId)) {
+            criterios.add(Criteria.where("desarrollador.id").is(ReferenciaUtil.idMongo(desarrolladorId)));
+            valores.put("desarrollador", desarrolladorId);
+        }
+        return this;
+    }
+
+    /**
+     * Filtra por plataforma
+     * @param plataforma plataforma exacta
+     * @return este filtro
+     */
+    public FiltroVideojuegos plataforma(String plataforma) {
+        if (tieneValor(plataforma)) {
+            criterios.add(Criteria.where("plataforma").is(plataforma));
+            valores.put("plataforma", plataforma);
+        }
+        return this;
+    }
+
+    /**
+     * Filtra por calificación PEGI
+     * @param calificacionPEGI calificación exacta
+     * @return este filtro
+     */
+    public FiltroVideojuegos calificacionPEGI(String calificacionPEGI) {
+        if (tieneValor(calificacionPEGI)) {
+            criterios.add(Criteria.where("calificacionPEGI").is(calificacionPEGI));
+            valores.put("calificacionPEGI", calificacionPEGI);
+        }
+        return this;
+    }
+
+    /**
+     * Filtra por rango de fecha de lanzamiento (extremos incluidos)
+     * @param desde fecha mínima (opcional)
+     * @param hasta fecha máxima (opcional)
+     * @return este filtro
+     */
+    public FiltroVideojuegos lanzadoEntre(LocalDate desde, LocalDate hasta) {
+        if (desde != null && hasta != null) {
+            criterios.add(Criteria.where("fechaLanzamiento").gte(desde).lte(hasta));
+        } else if (desde != null) {
+            criterios.add(Criteria.where("fechaLanzamiento").gte(desde));
+        } else if (hasta != null) {
+            criterios.add(Criteria.where("fechaLanzamiento").lte(hasta));
+        }
+        if (desde != null || hasta != null) {
+            valores.put("fechaLanzamiento", desde + ".." + hasta);
+        }
+        return this;
+    }
+
+    /**
+     * Filtra por texto contenido en el título (case-insensitive)
+     * @param titulo texto a buscar
+     * @return este filtro
+     */
+    public FiltroVideojuegos tituloContiene(String titulo) {
+        if (tieneValor(titulo)) {
+            criterios.add(Criteria.where("titulo").regex(Pattern.quote(titulo), "i"));
+            // La búsqueda no distingue mayúsculas, la clave tampoco
+            valores.put("titulo", titulo.toLowerCase(Locale.ROOT));
+        }
+        return this;
+    }
+
+    /**
+     * Compone todos los filtros indicados en un único criterio
+     * @return criterio de la consulta
+     */
+    public Criteria toCriteria() {
+        if (criterios.isEmpty()) {
+            return new Criteria();
+        }
+        if (criterios.size() == 1) {
+            return criterios.get(0);
+        }
+        return new Criteria().andOperator(criterios);
+    }
+
+    /**
+     * Clave normalizada del filtro: dos filtros con las mismas dimensiones y valores
+     * producen la misma clave, sea cual sea el orden en que se construyeron.
+     * Es un mapa inmutable y no su texto, para que ningún valor pueda hacerse pasar
+     * por otra combinación de dimensiones
+     * @return clave del filtro, con un valor por dimensión aplicada
+     */
+    public Map<String, String> clave() {
+        return Map.copyOf(valores);
+    }
+
+    private static boolean tieneValor(String valor) {
+        return valor != null && !valor.isEmpty();
+    }
+}
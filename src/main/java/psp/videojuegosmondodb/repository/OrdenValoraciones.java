@@ -0,0 +1,36 @@
+package psp.videojuegosmondodb.repository;
+
+import psp.videojuegosmondodb.exception.BadRequestException;
+
+/**
+ * Ordenaciones disponibles para las valoraciones de un videojuego
+ */
+public enum OrdenValoraciones {
+
+    /**
+     * Más recientes primero (el _id de MongoDB crece con la fecha de creación)
+     */
+    RECIENTES,
+
+    /**
+     * Mayor puntuación primero y, a igual puntuación, más recientes primero
+     */
+    PUNTUACION;
+
+    /**
+     * Obtiene la ordenación a partir del parámetro de la petición
+     * @param valor nombre de la ordenación, sin distinguir mayúsculas (null para la ordenación por defecto)
+     * @return la ordenación
+     */
+    public static OrdenValoraciones desde(String valor) {
+        if (valor == null || valor.isEmpty()) {
+            return RECIENTES;
+        }
+        for (OrdenValoraciones orden : values()) {
+            if (orden.name().equalsIgnoreCase(valor)) {
+                return orden;
+            }
+        }
+        throw new BadRequestException("Ordenación no válida: " + valor);
+    }
+}
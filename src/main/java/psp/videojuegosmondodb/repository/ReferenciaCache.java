@@ -0,0 +1,153 @@
+package psp.videojuegosmondodb.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import psp.videojuegosmondodb.model.Desarrollador;
+import psp.videojuegosmondodb.model.Genero;
+import psp.videojuegosmondodb.util.CacheAcotada;
+import psp.videojuegosmondodb.util.CacheAcotadaMetricas;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria de los datos de referencia (géneros y desarrolladores), indexada por ID y por nombre.
+ * Son colecciones pequeñas que casi nunca cambian, así que los servicios que las modifican
+ * invalidan la caché completa del tipo afectado tras cada escritura. Las entradas caducan además
+ * pasado un tiempo, por si la colección se modifica desde fuera de la aplicación.
+ */
+@Component
+public class ReferenciaCache {
+
+    private final GeneroRepository generoRepository;
+    private final DesarrolladorRepository desarrolladorRepository;
+
+    private final CacheAcotada<String, Genero> generosPorId;
+    private final CacheAcotada<String, Genero> generosPorNombre;
+    private final CacheAcotada<String, Desarrollador> desarrolladoresPorId;
+    private final CacheAcotada<String, Desarrollador> desarrolladoresPorNombre;
+
+    public ReferenciaCache(GeneroRepository generoRepository,
+                           DesarrolladorRepository desarrolladorRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${cache.referencias.tamano-maximo:1000}") int tamanoMaximo,
+                           @Value("${cache.referencias.ttl-segundos:600}") long ttlSegundos) {
+        this.generoRepository = generoRepository;
+        this.desarrolladorRepository = desarrolladorRepository;
+        Duration ttl = Duration.ofSeconds(ttlSegundos);
+        this.generosPorId = registrar(new CacheAcotada<>(tamanoMaximo, ttl), "generos.id", meterRegistry);
+        this.generosPorNombre = registrar(new CacheAcotada<>(tamanoMaximo, ttl), "generos.nombre", meterRegistry);
+        this.desarrolladoresPorId = registrar(new CacheAcotada<>(tamanoMaximo, ttl), "desarrolladores.id", meterRegistry);
+        this.desarrolladoresPorNombre = registrar(new CacheAcotada<>(tamanoMaximo, ttl), "desarrolladores.nombre", meterRegistry);
+    }
+
+    /**
+     * Obtiene un género por su ID
+     * @param id ID del género
+     * @return el género encontrado o vacío
+     */
+    public Optional<Genero> genero(String id) {
+        return Optional.ofNullable(generosPorId.obtener(id,
+                clave -> generoRepository.findById(clave).orElse(null)));
+    }
+
+    /**
+     * Obtiene un género por su nombre
+     * @param nombre nombre del género
+     * @return el género encontrado o vacío
+     */
+    public Optional<Genero> generoPorNombre(String nombre) {
+        return Optional.ofNullable(generosPorNombre.obtener(nombre,
+                clave -> generoRepository.findByNombre(clave).orElse(null)));
+    }
+
+    /**
+     * Obtiene varios géneros por ID, consultando con un único $in los que no estén en caché
+     * @param ids IDs de los géneros
+     * @return mapa de ID a género con los encontrados
+     */
+    public Map<String, Genero> generos(Collection<String> ids) {
+        return obtenerVarios(ids, generosPorId, generoRepository::findAllById, Genero::getId);
+    }
+
+    /**
+     * Obtiene un desarrollador por su ID
+     * @param id ID del desarrollador
+     * @return el desarrollador encontrado o vacío
+     */
+    public Optional<Desarrollador> desarrollador(String id) {
+        return Optional.ofNullable(desarrolladoresPorId.obtener(id,
+                clave -> desarrolladorRepository.findById(clave).orElse(null)));
+    }
+
+    /**
+     * Obtiene un desarrollador por su nombre de estudio
+     * @param nombreEstudio nombre del estudio
+     * @return el desarrollador encontrado o vacío
+     */
+    public Optional<Desarrollador> desarrolladorPorNombre(String nombreEstudio) {
+        return Optional.ofNullable(desarrolladoresPorNombre.obtener(nombreEstudio,
+                clave -> desarrolladorRepository.findByNombreEstudio(clave).orElse(null)));
+    }
+
+    /**
+     * Obtiene varios desarrolladores por ID, consultando con un único $in los que no estén en caché
+     * @param ids IDs de los desarrolladores
+     * @return mapa de ID a desarrollador con los encontrados
+     */
+    public Map<String, Desarrollador> desarrolladores(Collection<String> ids) {
+        return obtenerVarios(ids, desarrolladoresPorId, desarrolladorRepository::findAllById, Desarrollador::getId);
+    }
+
+    /**
+     * Invalida todos los géneros en caché
+     */
+    public void invalidarGeneros() {
+        generosPorId.invalidarTodo();
+        generosPorNombre.invalidarTodo();
+    }
+
+    /**
+     * Invalida todos los desarrolladores en caché
+     */
+    public void invalidarDesarrolladores() {
+        desarrolladoresPorId.invalidarTodo();
+        desarrolladoresPorNombre.invalidarTodo();
+    }
+
+    private <T> Map<String, T> obtenerVarios(Collection<String> ids, CacheAcotada<String, T> cache,
+                                             Function<List<String>, Iterable<T>> cargador,
+                                             Function<T, String> id) {
+        long generacionCarga = cache.generacion();
+        Map<String, T> resultado = new HashMap<>();
+        List<String> pendientes = new ArrayList<>();
+        for (String clave : ids) {
+            T valor = cache.obtener(clave);
+            if (valor != null) {
+                resultado.put(clave, valor);
+            } else {
+                pendientes.add(clave);
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            for (T valor : cargador.apply(pendientes)) {
+                cache.guardarSiVigente(id.apply(valor), valor, generacionCarga);
+                resultado.put(id.apply(valor), valor);
+            }
+        }
+        return resultado;
+    }
+
+    private static <T> CacheAcotada<String, T> registrar(CacheAcotada<String, T> cache, String nombre,
+                                                         MeterRegistry meterRegistry) {
+        new CacheAcotadaMetricas(cache, "referencias." + nombre).bindTo(meterRegistry);
+        return cache;
+    }
+}
@@ -0,0 +1,20 @@
+package psp.videojuegosmondodb.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import psp.videojuegosmondodb.model.TokenRevocado;
+
+import java.util.stream.Stream;
+
+/**
+ * Repositorio de tokens revocados
+ */
+public interface TokenRevocadoRepository extends MongoRepository<TokenRevocado, String> {
+
+    /**
+     * Recorre los identificadores de todos los tokens revocados con un cursor
+     * @return flujo de tokens con solo el ID; debe cerrarse tras usarlo
+     */
+    @Query(value = "{}", fields = "{ '_id': 1 }")
+    Stream<TokenRevocado> recorrerIds();
+}
@@ -8,7 +8,7 @@ import java.util.Optional;
 /**
  * Repositorio para operaciones CRUD con usuarios
  */
-public interface UsuarioRepository extends MongoRepository<Usuario, String> {
+public interface UsuarioRepository extends MongoRepository<Usuario, String>, UsuarioRepositoryCustom {
     
     /**
      * Busca un usuario por su email
@@ -0,0 +1,16 @@
+package psp.videojuegosmondodb.repository;
+
+/**
+ * Operaciones de usuarios implementadas directamente con MongoTemplate
+ */
+public interface UsuarioRepositoryCustom {
+
+    /**
+     * Sustituye el hash de la contraseña de un usuario sin reescribir el resto del documento,
+     * para no deshacer cambios de rol, nombre o email hechos mientras tanto
+     * @param usuarioId ID del usuario
+     * @param password nuevo hash de la contraseña
+     * @return true si el usuario existe
+     */
+    boolean actualizarPassword(String usuarioId, String password);
+}
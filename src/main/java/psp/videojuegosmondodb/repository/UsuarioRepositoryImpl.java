@@ -0,0 +1,28 @@
+package psp.videojuegosmondodb.repository;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import psp.videojuegosmondodb.util.ReferenciaUtil;
+
+/**
+ * Implementación de las operaciones personalizadas de usuarios
+ */
+public class UsuarioRepositoryImpl implements UsuarioRepositoryCustom {
+
+    private static final String COLECCION = "usuarios";
+
+    private final MongoTemplate mongoTemplate;
+
+    public UsuarioRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean actualizarPassword(String usuarioId, String password) {
+        Query query = new Query(Criteria.where("_id").is(ReferenciaUtil.idMongo(usuarioId)));
+        return mongoTemplate.updateFirst(query, new Update().set("password", password), COLECCION)
+                .getMatchedCount() > 0;
+    }
+}
@@ -0,0 +1,12 @@
+package psp.videojuegosmondodb.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import psp.videojuegosmondodb.model.Valoracion;
+
+/**
+ * Repositorio reactivo de valoraciones, equivalente de lectura de {@link ValoracionRepository}.
+ * Solo existe con el perfil "reactivo"
+ */
+public interface ValoracionReactivoRepository extends ReactiveMongoRepository<Valoracion, String>,
+        ValoracionReactivoRepositoryCustom {
+}
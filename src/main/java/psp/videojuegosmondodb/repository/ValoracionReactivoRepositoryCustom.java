@@ -0,0 +1,23 @@
+package psp.videojuegosmondodb.repository;
+
+import psp.videojuegosmondodb.model.Valoracion;
+import reactor.core.publisher.Flux;
+
+/**
+ * Operaciones de valoraciones implementadas directamente con ReactiveMongoTemplate
+ */
+public interface ValoracionReactivoRepositoryCustom {
+
+    /**
+     * Recorre las valoraciones de un videojuego en el orden indicado, leyendo el cursor de MongoDB
+     * por lotes a medida que el suscriptor pide elementos
+     * @param videojuegoId ID del videojuego
+     * @param orden ordenación
+     * @param despuesPuntuacion puntuación del último elemento recibido (solo por puntuación)
+     * @param despuesId ID del último elemento recibido (null para empezar por el principio)
+     * @param limite número máximo de elementos; 0 para no limitar
+     * @return flujo de valoraciones
+     */
+    Flux<Valoracion> recorrerPorVideojuego(String videojuegoId, OrdenValoraciones orden,
+                                           Integer despuesPuntuacion, String despuesId, int limite);
+}
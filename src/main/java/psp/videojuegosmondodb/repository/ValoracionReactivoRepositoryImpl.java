@@ -0,0 +1,30 @@
+package psp.videojuegosmondodb.repository;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import psp.videojuegosmondodb.model.Valoracion;
+import reactor.core.publisher.Flux;
+
+/**
+ * Implementación de las operaciones personalizadas del repositorio reactivo de valoraciones
+ */
+public class ValoracionReactivoRepositoryImpl implements ValoracionReactivoRepositoryCustom {
+
+    private static final String COLECCION = "valoraciones";
+    private static final int TAMANO_LOTE_CURSOR = 256;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ValoracionReactivoRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Flux<Valoracion> recorrerPorVideojuego(String videojuegoId, OrdenValoraciones orden,
+                                                  Integer despuesPuntuacion, String despuesId, int limite) {
+        Query query = ValoracionRepositoryImpl.consultaPaginaPorVideojuego(
+                        videojuegoId, orden, despuesPuntuacion, despuesId, limite)
+                .cursorBatchSize(TAMANO_LOTE_CURSOR);
+        return reactiveMongoTemplate.find(query, Valoracion.class, COLECCION);
+    }
+}
@@ -0,0 +1,66 @@
+package psp.videojuegosmondodb.repository;
+
+import psp.videojuegosmondodb.model.EstadisticasValoracion;
+import psp.videojuegosmondodb.model.Valoracion;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones de valoraciones implementadas directamente con MongoTemplate
+ */
+public interface ValoracionRepositoryCustom {
+
+    /**
+     * Cuenta las valoraciones de cada videojuego con una única agregación
+     * @return mapa de ID de videojuego a número de valoraciones
+     */
+    Map<String, Long> contarPorVideojuego();
+
+    /**
+     * Calcula desde cero las estadísticas de valoración de un lote de videojuegos
+     * con una agregación que agrupa por videojuego y puntuación
+     * @param videojuegoIds IDs de los videojuegos del lote
+     * @return estadísticas por ID de videojuego, incluidos los que no tienen valoraciones
+     */
+    Map<String, EstadisticasValoracion> calcularEstadisticas(Collection<String> videojuegoIds);
+
+    /**
+     * Busca una página de valoraciones de un videojuego usando paginación por clave.
+     * Solo se leen los campos que se muestran, incluidas las copias embebidas de usuario y videojuego
+     * @param videojuegoId ID del videojuego
+     * @param orden ordenación de la página
+     * @param despuesPuntuacion puntuación del último elemento de la página anterior (solo por puntuación)
+     * @param despuesId ID del último elemento de la página anterior (null en la primera)
+     * @param limite número máximo de elementos a devolver
+     * @return lista de valoraciones
+     */
+    List<Valoracion> buscarPaginaPorVideojuego(String videojuegoId, OrdenValoraciones orden,
+                                               Integer despuesPuntuacion, String despuesId, int limite);
+
+    /**
+     * Actualiza el nombre de la copia embebida del usuario en todas sus valoraciones
+     * @param usuarioId ID del usuario
+     * @param nombre nuevo nombre
+     * @return número de valoraciones modificadas
+     */
+    long actualizarNombreUsuario(String usuarioId, String nombre);
+
+    /**
+     * Actualiza el título de la copia embebida del videojuego en todas sus valoraciones
+     * @param videojuegoId ID del videojuego
+     * @param titulo nuevo título
+     * @return número de valoraciones modificadas
+     */
+    long actualizarTituloVideojuego(String videojuegoId, String titulo);
+
+    /**
+     * Convierte las valoraciones que aún guardan DBRef a usuario y videojuego en copias embebidas
+     * { id, nombre } y { id, titulo }, por lotes, y sustituye los índices sobre las referencias
+     * por los de usuario.id y videojuego.id. Se puede ejecutar varias veces sin efectos
+     * sobre las ya convertidas
+     * @return número de valoraciones convertidas
+     */
+    long migrarReferencias();
+}
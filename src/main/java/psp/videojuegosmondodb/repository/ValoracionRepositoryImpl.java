@@ -0,0 +1,250 @@
+package psp.videojuegosmondodb.repository;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import psp.videojuegosmondodb.model.EstadisticasValoracion;
+import psp.videojuegosmondodb.model.Valoracion;
+import psp.videojuegosmondodb.util.ReferenciaUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de las operaciones personalizadas de valoraciones
+ */
+public class ValoracionRepositoryImpl implements ValoracionRepositoryCustom {
+
+    private static final String COLECCION = "valoraciones";
+    private static final int TAMANO_LOTE_MIGRACION = 1000;
+    // Índices del esquema con DBRef: comparan los subdocumentos enteros y ya no garantizan
+    // una valoración por usuario y videojuego
+    private static final Set<List<String>> INDICES_ANTIGUOS = Set.of(
+            List.of("usuario", "videojuego"),
+            List.of("videojuego"));
+
+    private final MongoTemplate mongoTemplate;
+
+    public ValoracionRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Map<String, Long> contarPorVideojuego() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group(Fields.from(Fields.field("videojuego", "videojuego.id"))).count().as("total")
+        );
+        Map<String, Long> totales = new HashMap<>();
+        for (Document resultado : mongoTemplate.aggregate(aggregation, COLECCION, Document.class)) {
+            Object videojuegoId = resultado.get("_id");
+            if (videojuegoId != null) {
+                totales.put(videojuegoId.toString(), ((Number) resultado.get("total")).longValue());
+            }
+        }
+        return totales;
+    }
+
+    @Override
+    public Map<String, EstadisticasValoracion> calcularEstadisticas(Collection<String> videojuegoIds) {
+        Map<String, EstadisticasValoracion> estadisticas = new HashMap<>();
+        List<Object> ids = new ArrayList<>(videojuegoIds.size());
+        for (String id : videojuegoIds) {
+            estadisticas.put(id, new EstadisticasValoracion());
+            ids.add(ReferenciaUtil.idMongo(id));
+        }
+
+        // El $match usa el índice { videojuego.id: 1, puntuacion: 1, _id: 1 }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("videojuego.id").in(ids)),
+                Aggregation.group(Fields.from(
+                        Fields.field("videojuego", "videojuego.id"),
+                        Fields.field("puntuacion"))).count().as("total")
+        );
+        for (Document resultado : mongoTemplate.aggregate(aggregation, COLECCION, Document.class)) {
+            Document grupo = resultado.get("_id", Document.class);
+            Object videojuegoId = grupo.get("videojuego");
+            EstadisticasValoracion valor = videojuegoId != null ? estadisticas.get(videojuegoId.toString()) : null;
+            Object puntuacion = grupo.get("puntuacion");
+            if (valor == null || !(puntuacion instanceof Number numero)) {
+                continue;
+            }
+            long total = ((Number) resultado.get("total")).longValue();
+            valor.setSuma(valor.getSuma() + numero.longValue() * total);
+            valor.setTotal(valor.getTotal() + total);
+            valor.getHistograma().merge(String.valueOf(numero.intValue()), total, Long::sum);
+        }
+        return estadisticas;
+    }
+
+    @Override
+    public List<Valoracion> buscarPaginaPorVideojuego(String videojuegoId, OrdenValoraciones orden,
+                                                      Integer despuesPuntuacion, String despuesId, int limite) {
+        return mongoTemplate.find(consultaPaginaPorVideojuego(videojuegoId, orden, despuesPuntuacion, despuesId, limite),
+                Valoracion.class, COLECCION);
+    }
+
+    @Override
+    public long actualizarNombreUsuario(String usuarioId, String nombre) {
+        // Solo se tocan las valoraciones cuya copia está desactualizada
+        Query query = new Query(Criteria.where("usuario.id").is(ReferenciaUtil.idMongo(usuarioId))
+                .and("usuario.nombre").ne(nombre));
+        return mongoTemplate.updateMulti(query, new Update().set("usuario.nombre", nombre), COLECCION)
+                .getModifiedCount();
+    }
+
+    @Override
+    public long actualizarTituloVideojuego(String videojuegoId, String titulo) {
+        Query query = new Query(Criteria.where("videojuego.id").is(ReferenciaUtil.idMongo(videojuegoId))
+                .and("videojuego.titulo").ne(titulo));
+        return mongoTemplate.updateMulti(query, new Update().set("videojuego.titulo", titulo), COLECCION)
+                .getModifiedCount();
+    }
+
+    @Override
+    public long migrarReferencias() {
+        // Valoraciones que todavía guardan alguna de las dos referencias como DBRef
+        Query query = new BasicQuery(new Document("$or", List.of(
+                new Document("usuario.$ref", new Document("$exists", true)),
+                new Document("videojuego.$ref", new Document("$exists", true)))))
+                .cursorBatchSize(TAMANO_LOTE_MIGRACION);
+        query.fields().include("usuario", "videojuego");
+
+        long migradas = 0;
+        List<Document> lote = new ArrayList<>(TAMANO_LOTE_MIGRACION);
+        try (Stream<Document> documentos = mongoTemplate.stream(query, Document.class, COLECCION)) {
+            for (Document documento : (Iterable<Document>) documentos::iterator) {
+                lote.add(documento);
+                if (lote.size() == TAMANO_LOTE_MIGRACION) {
+                    migradas += migrarLote(lote);
+                    lote.clear();
+                }
+            }
+        }
+        migradas += migrarLote(lote);
+        actualizarIndices();
+        return migradas;
+    }
+
+    /**
+     * Crea los índices declarados en {@link Valoracion}, entre ellos el único { usuario.id: 1, videojuego.id: 1 },
+     * y después elimina los que había sobre las referencias antiguas. Crear un índice que ya existe no tiene efecto;
+     * si el único no se puede crear por valoraciones duplicadas, los antiguos se conservan
+     */
+    private void actualizarIndices() {
+        IndexOperations indices = mongoTemplate.indexOps(COLECCION);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Valoracion.class)
+                .forEach(indices::createIndex);
+        for (IndexInfo indice : indices.getIndexInfo()) {
+            List<String> campos = indice.getIndexFields().stream().map(IndexField::getKey).toList();
+            if (INDICES_ANTIGUOS.contains(campos)) {
+                indices.dropIndex(indice.getName());
+            }
+        }
+    }
+
+    /**
+     * Sustituye los DBRef de un lote por copias embebidas, leyendo nombres y títulos
+     * con una consulta $in por colección y escribiendo con una operación bulk
+     */
+    private long migrarLote(List<Document> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        Set<Object> usuarioIds = new HashSet<>();
+        Set<Object> videojuegoIds = new HashSet<>();
+        for (Document documento : lote) {
+            agregarId(usuarioIds, documento.get("usuario"));
+            agregarId(videojuegoIds, documento.get("videojuego"));
+        }
+        Map<String, String> nombres = leerCampo("usuarios", usuarioIds, "nombre");
+        Map<String, String> titulos = leerCampo("videojuegos", videojuegoIds, "titulo");
+
+        // Las copias se escriben como documentos para conservar el tipo ObjectId del id referenciado
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLECCION);
+        for (Document documento : lote) {
+            Update update = new Update();
+            String usuarioId = ReferenciaUtil.idReferencia(documento.get("usuario"));
+            if (usuarioId != null) {
+                update.set("usuario", new Document("id", ReferenciaUtil.idMongo(usuarioId))
+                        .append("nombre", nombres.get(usuarioId)));
+            }
+            String videojuegoId = ReferenciaUtil.idReferencia(documento.get("videojuego"));
+            if (videojuegoId != null) {
+                update.set("videojuego", new Document("id", ReferenciaUtil.idMongo(videojuegoId))
+                        .append("titulo", titulos.get(videojuegoId)));
+            }
+            operaciones.updateOne(new Query(Criteria.where("_id").is(documento.get("_id"))), update);
+        }
+        return operaciones.execute().getModifiedCount();
+    }
+
+    /**
+     * Consulta de una página de valoraciones de un videojuego, compartida con el repositorio reactivo.
+     * Solo se leen los campos que se muestran
+     * @param limite número máximo de elementos; 0 para no limitar
+     */
+    static Query consultaPaginaPorVideojuego(String videojuegoId, OrdenValoraciones orden,
+                                             Integer despuesPuntuacion, String despuesId, int limite) {
+        Criteria criterio = Criteria.where("videojuego.id").is(ReferenciaUtil.idMongo(videojuegoId));
+        Sort ordenacion = orden == OrdenValoraciones.PUNTUACION
+                ? Sort.by(Sort.Direction.DESC, "puntuacion", "_id")
+                : Sort.by(Sort.Direction.DESC, "_id");
+        if (despuesId != null) {
+            Object id = ReferenciaUtil.idMongo(despuesId);
+            if (orden == OrdenValoraciones.PUNTUACION) {
+                // Continuar tras la clave (puntuacion, _id) del último elemento, en orden descendente
+                criterio = new Criteria().andOperator(criterio, new Criteria().orOperator(
+                        Criteria.where("puntuacion").lt(despuesPuntuacion),
+                        Criteria.where("puntuacion").is(despuesPuntuacion).and("_id").lt(id)));
+            } else {
+                criterio = criterio.and("_id").lt(id);
+            }
+        }
+
+        Query query = new Query(criterio).with(ordenacion).limit(limite);
+        query.fields().include("usuario", "videojuego", "puntuacion", "comentario");
+        return query;
+    }
+
+    private static void agregarId(Set<Object> ids, Object referencia) {
+        String id = ReferenciaUtil.idReferencia(referencia);
+        if (id != null) {
+            ids.add(ReferenciaUtil.idMongo(id));
+        }
+    }
+
+    /**
+     * Lee un único campo de varios documentos con una consulta $in
+     * @return valor del campo por ID de documento
+     */
+    private Map<String, String> leerCampo(String coleccion, Set<Object> ids, String campo) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include(campo);
+        Map<String, String> valores = new HashMap<>();
+        for (Document documento : mongoTemplate.find(query, Document.class, coleccion)) {
+            valores.put(documento.get("_id").toString(), documento.getString(campo));
+        }
+        return valores;
+    }
+}
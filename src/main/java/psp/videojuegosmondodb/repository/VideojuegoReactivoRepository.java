@@ -0,0 +1,13 @@
+package psp.videojuegosmondodb.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import psp.videojuegosmondodb.model.Videojuego;
+
+/**
+ * Repositorio reactivo de videojuegos, equivalente de lectura de {@link VideojuegoRepository}.
+ * Solo existe con el perfil "reactivo". Lee las copias embebidas de género y desarrollador,
+ * así que los videojuegos que aún guarden DBRef deben migrarse antes (POST /videojuegos/migrar)
+ */
+public interface VideojuegoReactivoRepository extends ReactiveMongoRepository<Videojuego, String>,
+        VideojuegoReactivoRepositoryCustom {
+}
@@ -0,0 +1,21 @@
+package psp.videojuegosmondodb.repository;
+
+import psp.videojuegosmondodb.model.Videojuego;
+import reactor.core.publisher.Flux;
+
+/**
+ * Operaciones de videojuegos implementadas directamente con ReactiveMongoTemplate
+ */
+public interface VideojuegoReactivoRepositoryCustom {
+
+    /**
+     * Recorre los videojuegos que cumplen el filtro ordenados por título e ID. El cursor de MongoDB
+     * se lee por lotes a medida que el suscriptor pide elementos
+     * @param filtro filtros a aplicar
+     * @param despuesTitulo título del último elemento recibido (null para empezar por el principio)
+     * @param despuesId ID del último elemento recibido (null para empezar por el principio)
+     * @param limite número máximo de elementos; 0 para no limitar
+     * @return flujo de videojuegos
+     */
+    Flux<Videojuego> recorrer(FiltroVideojuegos filtro, String despuesTitulo, String despuesId, int limite);
+}
@@ -0,0 +1,30 @@
+package psp.videojuegosmondodb.repository;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import psp.videojuegosmondodb.model.Videojuego;
+import reactor.core.publisher.Flux;
+
+/**
+ * Implementación de las operaciones personalizadas del repositorio reactivo de videojuegos
+ */
+public class VideojuegoReactivoRepositoryImpl implements VideojuegoReactivoRepositoryCustom {
+
+    private static final String COLECCION = "videojuegos";
+    // Sin tamaño de lote explícito el driver reactivo pide a MongoDB tantos documentos como
+    // demanda el suscriptor, que al escribir la respuesta es de uno en uno
+    private static final int TAMANO_LOTE_CURSOR = 256;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public VideojuegoReactivoRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Flux<Videojuego> recorrer(FiltroVideojuegos filtro, String despuesTitulo, String despuesId, int limite) {
+        Query query = VideojuegoRepositoryImpl.consultaPagina(filtro, despuesTitulo, despuesId, limite)
+                .cursorBatchSize(TAMANO_LOTE_CURSOR);
+        return reactiveMongoTemplate.find(query, Videojuego.class, COLECCION);
+    }
+}
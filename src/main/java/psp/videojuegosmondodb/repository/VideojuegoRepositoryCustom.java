@@ -0,0 +1,124 @@
+package psp.videojuegosmondodb.repository;
+
+import psp.videojuegosmondodb.model.EstadisticasValoracion;
+import psp.videojuegosmondodb.model.Videojuego;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Operaciones de videojuegos implementadas directamente con MongoTemplate
+ */
+public interface VideojuegoRepositoryCustom {
+
+    /**
+     * Busca un videojuego por su ID resolviendo sus referencias a través de la caché
+     * @param id ID del videojuego
+     * @return el videojuego encontrado o vacío
+     */
+    Optional<Videojuego> buscarPorId(String id);
+
+    /**
+     * Obtiene solo el título de un videojuego, sin leer el resto del documento
+     * @param id ID del videojuego
+     * @return el título, o vacío si no existe
+     */
+    Optional<String> buscarTitulo(String id);
+
+    /**
+     * Actualiza los datos de catálogo de un videojuego con $set, sin tocar sus estadísticas de valoración
+     * @param videojuego videojuego con el ID y los nuevos datos
+     * @return el videojuego actualizado, o vacío si no existe
+     */
+    Optional<Videojuego> actualizarDatos(Videojuego videojuego);
+
+    /**
+     * Suma una valoración a las estadísticas del videojuego con un único $inc atómico
+     * @param videojuegoId ID del videojuego
+     * @param puntuacion puntuación de la valoración (1 a 10)
+     * @return true si el videojuego existe y se ha actualizado
+     */
+    boolean registrarValoracion(String videojuegoId, int puntuacion);
+
+    /**
+     * Sustituye las estadísticas de valoración de varios videojuegos con una operación bulk
+     * @param estadisticas estadísticas por ID de videojuego
+     */
+    void guardarEstadisticas(Map<String, EstadisticasValoracion> estadisticas);
+
+    /**
+     * Busca una página de videojuegos ordenada por título e ID usando paginación por clave
+     * @param filtro filtros a aplicar
+     * @param despuesTitulo título del último elemento de la página anterior (null en la primera)
+     * @param despuesId ID del último elemento de la página anterior (null en la primera)
+     * @param limite número máximo de elementos a devolver
+     * @return lista de videojuegos
+     */
+    List<Videojuego> buscarPagina(FiltroVideojuegos filtro, String despuesTitulo, String despuesId, int limite);
+
+    /**
+     * Busca una página de videojuegos y cuenta los que cumplen el filtro por género, plataforma,
+     * desarrollador y calificación PEGI, todo en una única agregación $facet
+     * @param filtro filtros a aplicar
+     * @param despuesTitulo título del último elemento de la página anterior (null en la primera)
+     * @param despuesId ID del último elemento de la página anterior (null en la primera)
+     * @param limite número máximo de elementos a devolver
+     * @return página de videojuegos y conteos de cada faceta
+     */
+    FacetasVideojuegos buscarPaginaConFacetas(FiltroVideojuegos filtro, String despuesTitulo, String despuesId, int limite);
+
+    /**
+     * Busca varios videojuegos por ID con una única consulta, conservando el orden recibido
+     * @param ids IDs de los videojuegos
+     * @return videojuegos encontrados en el mismo orden que los IDs
+     */
+    List<Videojuego> buscarPorIds(List<String> ids);
+
+    /**
+     * Recorre el ID y el título de todos los videojuegos con un cursor, sin cargar la colección en memoria
+     * @param consumidor función que recibe el ID y el título de cada videojuego
+     */
+    void recorrerTitulos(BiConsumer<String, String> consumidor);
+
+    /**
+     * Recorre todos los videojuegos con un cursor, resolviendo sus referencias por lotes.
+     * Solo se mantiene en memoria el lote en curso
+     * @param consumidor función que recibe cada videojuego
+     */
+    void recorrerCatalogo(Consumer<Videojuego> consumidor);
+
+    /**
+     * Inserta varios videojuegos con una única operación bulk no ordenada: un error en un
+     * documento no impide insertar el resto
+     * @param videojuegos videojuegos a insertar, con su ID ya asignado
+     * @return mensaje de error por posición en la lista de los que no se insertaron
+     */
+    Map<Integer, String> insertarEnBloque(List<Videojuego> videojuegos);
+
+    /**
+     * Actualiza el nombre del género embebido en todos los videojuegos que lo referencian
+     * @param generoId ID del género
+     * @param nombre nuevo nombre
+     * @return número de videojuegos modificados
+     */
+    long actualizarNombreGenero(String generoId, String nombre);
+
+    /**
+     * Actualiza el nombre del estudio embebido en todos los videojuegos que lo referencian
+     * @param desarrolladorId ID del desarrollador
+     * @param nombreEstudio nuevo nombre del estudio
+     * @return número de videojuegos modificados
+     */
+    long actualizarNombreDesarrollador(String desarrolladorId, String nombreEstudio);
+
+    /**
+     * Convierte los DBRef de género y desarrollador que queden en la colección en copias
+     * embebidas. Recorre solo los documentos pendientes con un cursor y escribe por lotes,
+     * así que puede ejecutarse con la aplicación en servicio y repetirse sin efecto
+     * @return número de videojuegos migrados
+     */
+    long migrarReferencias();
+}
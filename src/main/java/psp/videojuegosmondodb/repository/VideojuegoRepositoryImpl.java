@@ -0,0 +1,393 @@
+package psp.videojuegosmondodb.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import psp.videojuegosmondodb.model.Desarrollador;
+import psp.videojuegosmondodb.model.EstadisticasValoracion;
+import psp.videojuegosmondodb.model.Genero;
+import psp.videojuegosmondodb.model.Videojuego;
+import psp.videojuegosmondodb.util.ReferenciaUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de las operaciones personalizadas de videojuegos
+ */
+public class VideojuegoRepositoryImpl implements VideojuegoRepositoryCustom {
+
+    private static final String COLECCION = "videojuegos";
+    private static final int TAMANO_LOTE_CURSOR = 5000;
+    private static final int TAMANO_LOTE_CATALOGO = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ReferenciaCache referenciaCache;
+
+    public VideojuegoRepositoryImpl(MongoTemplate mongoTemplate, ReferenciaCache referenciaCache) {
+        this.mongoTemplate = mongoTemplate;
+        this.referenciaCache = referenciaCache;
+    }
+
+    @Override
+    public Optional<Videojuego> buscarPorId(String id) {
+        Query query = new Query(Criteria.where("_id").is(ReferenciaUtil.idMongo(id)));
+        return leer(mongoTemplate.find(query, Document.class, COLECCION)).stream().findFirst();
+    }
+
+    @Override
+    public Optional<String> buscarTitulo(String id) {
+        Query query = new Query(Criteria.where("_id").is(ReferenciaUtil.idMongo(id)));
+        query.fields().include("titulo");
+        return Optional.ofNullable(mongoTemplate.findOne(query, Document.class, COLECCION))
+                .map(documento -> documento.getString("titulo"));
+    }
+
+    @Override
+    public Optional<Videojuego> actualizarDatos(Videojuego videojuego) {
+        Query query = new Query(Criteria.where("_id").is(ReferenciaUtil.idMongo(videojuego.getId())));
+        Update update = new Update()
+                .set("titulo", videojuego.getTitulo())
+                .set("genero", resumenGenero(videojuego.getGenero().getId(), videojuego.getGenero().getNombre()))
+                .set("desarrollador", resumenDesarrollador(videojuego.getDesarrollador().getId(),
+                        videojuego.getDesarrollador().getNombreEstudio()))
+                .set("plataforma", videojuego.getPlataforma())
+                .set("fechaLanzamiento", videojuego.getFechaLanzamiento())
+                .set("calificacionPEGI", videojuego.getCalificacionPEGI())
+                .set("imagenURL", videojuego.getImagenURL());
+        Document actualizado = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Document.class, COLECCION);
+        if (actualizado == null) {
+            return Optional.empty();
+        }
+        return leer(List.of(actualizado)).stream().findFirst();
+    }
+
+    @Override
+    public boolean registrarValoracion(String videojuegoId, int puntuacion) {
+        Query query = new Query(Criteria.where("_id").is(ReferenciaUtil.idMongo(videojuegoId)));
+        Update update = new Update()
+                .inc("estadisticas.suma", puntuacion)
+                .inc("estadisticas.total", 1)
+                .inc("estadisticas.histograma." + puntuacion, 1);
+        return mongoTemplate.updateFirst(query, update, COLECCION).getMatchedCount() > 0;
+    }
+
+    @Override
+    public void guardarEstadisticas(Map<String, EstadisticasValoracion> estadisticas) {
+        if (estadisticas.isEmpty()) {
+            return;
+        }
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLECCION);
+        estadisticas.forEach((id, valor) -> operaciones.updateOne(
+                new Query(Criteria.where("_id").is(ReferenciaUtil.idMongo(id))),
+                new Update().set("estadisticas", new Document()
+                        .append("suma", valor.getSuma())
+                        .append("total", valor.getTotal())
+                        .append("histograma", new Document(new HashMap<>(valor.getHistograma()))))));
+        operaciones.execute();
+    }
+
+    @Override
+    public List<Videojuego> buscarPagina(FiltroVideojuegos filtro, String despuesTitulo, String despuesId, int limite) {
+        return leer(mongoTemplate.find(consultaPagina(filtro, despuesTitulo, despuesId, limite), Document.class, COLECCION));
+    }
+
+    @Override
+    public FacetasVideojuegos buscarPaginaConFacetas(FiltroVideojuegos filtro, String despuesTitulo,
+                                                     String despuesId, int limite) {
+        List<AggregationOperation> pagina = new ArrayList<>();
+        if (despuesId != null) {
+            pagina.add(Aggregation.match(despuesDe(despuesTitulo, despuesId)));
+        }
+        pagina.add(Aggregation.sort(Sort.by(Sort.Direction.ASC, "titulo", "_id")));
+        pagina.add(Aggregation.limit(limite));
+
+        // El $match inicial usa los índices; cada rama del $facet trabaja sobre los documentos filtrados
+        Aggregation agregacion = Aggregation.newAggregation(
+                Aggregation.match(filtro.toCriteria()),
+                Aggregation.facet(pagina.toArray(new AggregationOperation[0])).as("pagina")
+                        .and(Aggregation.group(Fields.from(Fields.field("genero", "genero.id")))
+                                .count().as("total")).as("generos")
+                        .and(Aggregation.group("plataforma").count().as("total")).as("plataformas")
+                        .and(Aggregation.group(Fields.from(Fields.field("desarrollador", "desarrollador.id")))
+                                .count().as("total")).as("desarrolladores")
+                        .and(Aggregation.group("calificacionPEGI").count().as("total")).as("calificacionesPEGI")
+        );
+
+        Document resultado = mongoTemplate.aggregate(agregacion, COLECCION, Document.class).getUniqueMappedResult();
+        if (resultado == null) {
+            return new FacetasVideojuegos(List.of(), new ConteosFacetas(Map.of(), Map.of(), Map.of(), Map.of()));
+        }
+        ConteosFacetas conteos = new ConteosFacetas(
+                conteos(resultado, "generos"),
+                conteos(resultado, "plataformas"),
+                conteos(resultado, "desarrolladores"),
+                conteos(resultado, "calificacionesPEGI"));
+        return new FacetasVideojuegos(leer(resultado.getList("pagina", Document.class)), conteos);
+    }
+
+    @Override
+    public List<Videojuego> buscarPorIds(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Object> idsMongo = ids.stream().map(ReferenciaUtil::idMongo).toList();
+        Query query = new Query(Criteria.where("_id").in(idsMongo));
+        Map<String, Videojuego> porId = new HashMap<>();
+        for (Videojuego videojuego : leer(mongoTemplate.find(query, Document.class, COLECCION))) {
+            porId.put(videojuego.getId(), videojuego);
+        }
+
+        List<Videojuego> ordenados = new ArrayList<>(porId.size());
+        for (String id : ids) {
+            Videojuego videojuego = porId.get(id);
+            if (videojuego != null) {
+                ordenados.add(videojuego);
+            }
+        }
+        return ordenados;
+    }
+
+    @Override
+    public void recorrerTitulos(BiConsumer<String, String> consumidor) {
+        Query query = new Query().cursorBatchSize(TAMANO_LOTE_CURSOR);
+        query.fields().include("titulo");
+        try (Stream<Document> documentos = mongoTemplate.stream(query, Document.class, COLECCION)) {
+            documentos.forEach(documento ->
+                    consumidor.accept(documento.get("_id").toString(), documento.getString("titulo")));
+        }
+    }
+
+    @Override
+    public void recorrerCatalogo(Consumer<Videojuego> consumidor) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(TAMANO_LOTE_CATALOGO);
+        List<Document> lote = new ArrayList<>(TAMANO_LOTE_CATALOGO);
+        try (Stream<Document> documentos = mongoTemplate.stream(query, Document.class, COLECCION)) {
+            documentos.forEach(documento -> {
+                lote.add(documento);
+                if (lote.size() == TAMANO_LOTE_CATALOGO) {
+                    leer(lote).forEach(consumidor);
+                    lote.clear();
+                }
+            });
+        }
+        leer(lote).forEach(consumidor);
+    }
+
+    @Override
+    public Map<Integer, String> insertarEnBloque(List<Videojuego> videojuegos) {
+        if (videojuegos.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Videojuego.class, COLECCION)
+                    .insert(videojuegos)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> errores = new HashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                errores.put(error.getIndex(), error.getMessage());
+            }
+            return errores;
+        }
+    }
+
+    @Override
+    public long actualizarNombreGenero(String generoId, String nombre) {
+        // Solo se tocan los videojuegos cuya copia está desactualizada
+        Query query = new Query(Criteria.where("genero.id").is(ReferenciaUtil.idMongo(generoId))
+                .and("genero.nombre").ne(nombre));
+        return mongoTemplate.updateMulti(query, new Update().set("genero.nombre", nombre), COLECCION)
+                .getModifiedCount();
+    }
+
+    @Override
+    public long actualizarNombreDesarrollador(String desarrolladorId, String nombreEstudio) {
+        Query query = new Query(Criteria.where("desarrollador.id").is(ReferenciaUtil.idMongo(desarrolladorId))
+                .and("desarrollador.nombreEstudio").ne(nombreEstudio));
+        return mongoTemplate.updateMulti(query, new Update().set("desarrollador.nombreEstudio", nombreEstudio),
+                COLECCION).getModifiedCount();
+    }
+
+    @Override
+    public long migrarReferencias() {
+        // Videojuegos que todavía guardan alguna de las dos referencias como DBRef
+        Query query = new BasicQuery(new Document("$or", List.of(
+                new Document("genero.$ref", new Document("$exists", true)),
+                new Document("desarrollador.$ref", new Document("$exists", true)))))
+                .cursorBatchSize(TAMANO_LOTE_CATALOGO);
+        query.fields().include("genero", "desarrollador");
+
+        long migrados = 0;
+        List<Document> lote = new ArrayList<>(TAMANO_LOTE_CATALOGO);
+        try (Stream<Document> documentos = mongoTemplate.stream(query, Document.class, COLECCION)) {
+            for (Document documento : (Iterable<Document>) documentos::iterator) {
+                lote.add(documento);
+                if (lote.size() == TAMANO_LOTE_CATALOGO) {
+                    migrados += migrarLote(lote);
+                    lote.clear();
+                }
+            }
+        }
+        return migrados + migrarLote(lote);
+    }
+
+    /**
+     * Sustituye los DBRef de un lote por copias embebidas, con los nombres de la caché de
+     * referencias, y escribe todos los cambios con una operación bulk
+     */
+    private long migrarLote(List<Document> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        Set<String> generoIds = new HashSet<>();
+        Set<String> desarrolladorIds = new HashSet<>();
+        for (Document documento : lote) {
+            agregarId(generoIds, documento.get("genero"));
+            agregarId(desarrolladorIds, documento.get("desarrollador"));
+        }
+        Map<String, Genero> generos = referenciaCache.generos(generoIds);
+        Map<String, Desarrollador> desarrolladores = referenciaCache.desarrolladores(desarrolladorIds);
+
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLECCION);
+        int pendientes = 0;
+        for (Document documento : lote) {
+            if (embeberReferencias(documento, generos, desarrolladores)) {
+                operaciones.updateOne(new Query(Criteria.where("_id").is(documento.get("_id"))), new Update()
+                        .set("genero", documento.get("genero"))
+                        .set("desarrollador", documento.get("desarrollador")));
+                pendientes++;
+            }
+        }
+        return pendientes > 0 ? operaciones.execute().getModifiedCount() : 0;
+    }
+
+    /**
+     * Convierte documentos sin mapear en videojuegos. Género y desarrollador van embebidos,
+     * así que no hace falta ninguna consulta adicional; solo los documentos que aún guardan
+     * DBRef (pendientes de {@link #migrarReferencias()}) se completan con la caché de referencias
+     * @param documentos documentos leídos de la colección de videojuegos
+     * @return videojuegos con género y desarrollador
+     */
+    private List<Videojuego> leer(List<Document> documentos) {
+        Set<String> generoIds = new HashSet<>();
+        Set<String> desarrolladorIds = new HashSet<>();
+        for (Document documento : documentos) {
+            agregarId(generoIds, documento.get("genero"));
+            agregarId(desarrolladorIds, documento.get("desarrollador"));
+        }
+        if (!generoIds.isEmpty() || !desarrolladorIds.isEmpty()) {
+            Map<String, Genero> generos = referenciaCache.generos(generoIds);
+            Map<String, Desarrollador> desarrolladores = referenciaCache.desarrolladores(desarrolladorIds);
+            for (Document documento : documentos) {
+                embeberReferencias(documento, generos, desarrolladores);
+            }
+        }
+
+        List<Videojuego> videojuegos = new ArrayList<>(documentos.size());
+        for (Document documento : documentos) {
+            videojuegos.add(mongoTemplate.getConverter().read(Videojuego.class, documento));
+        }
+        return videojuegos;
+    }
+
+    /**
+     * Sustituye en el documento los DBRef de género y desarrollador por sus copias embebidas
+     * @return true si el documento tenía alguna referencia
+     */
+    private static boolean embeberReferencias(Document documento, Map<String, Genero> generos,
+                                              Map<String, Desarrollador> desarrolladores) {
+        boolean cambiado = false;
+        String generoId = ReferenciaUtil.idReferencia(documento.get("genero"));
+        if (generoId != null) {
+            Genero genero = generos.get(generoId);
+            documento.put("genero", resumenGenero(generoId, genero != null ? genero.getNombre() : null));
+            cambiado = true;
+        }
+        String desarrolladorId = ReferenciaUtil.idReferencia(documento.get("desarrollador"));
+        if (desarrolladorId != null) {
+            Desarrollador desarrollador = desarrolladores.get(desarrolladorId);
+            documento.put("desarrollador", resumenDesarrollador(desarrolladorId,
+                    desarrollador != null ? desarrollador.getNombreEstudio() : null));
+            cambiado = true;
+        }
+        return cambiado;
+    }
+
+    // Las copias se escriben como documentos para conservar el tipo ObjectId del id referenciado
+    private static Document resumenGenero(String id, String nombre) {
+        return new Document("id", ReferenciaUtil.idMongo(id)).append("nombre", nombre);
+    }
+
+    private static Document resumenDesarrollador(String id, String nombreEstudio) {
+        return new Document("id", ReferenciaUtil.idMongo(id)).append("nombreEstudio", nombreEstudio);
+    }
+
+    /**
+     * Consulta de una página ordenada por título e ID, compartida con el repositorio reactivo
+     * @param limite número máximo de elementos; 0 para no limitar
+     */
+    static Query consultaPagina(FiltroVideojuegos filtro, String despuesTitulo, String despuesId, int limite) {
+        Criteria criterio = filtro.toCriteria();
+        if (despuesId != null) {
+            criterio = new Criteria().andOperator(criterio, despuesDe(despuesTitulo, despuesId));
+        }
+        return new Query(criterio)
+                .with(Sort.by(Sort.Direction.ASC, "titulo", "_id"))
+                .limit(limite);
+    }
+
+    /**
+     * Criterio para continuar justo después de la clave (titulo, _id) del último elemento devuelto
+     */
+    private static Criteria despuesDe(String despuesTitulo, String despuesId) {
+        return new Criteria().orOperator(
+                Criteria.where("titulo").gt(despuesTitulo),
+                Criteria.where("titulo").is(despuesTitulo).and("_id").gt(ReferenciaUtil.idMongo(despuesId))
+        );
+    }
+
+    /**
+     * Lee los grupos de una rama del $facet; los IDs de género y desarrollador se devuelven como texto
+     */
+    private static Map<String, Long> conteos(Document resultado, String faceta) {
+        Map<String, Long> conteos = new HashMap<>();
+        for (Document grupo : resultado.getList(faceta, Document.class)) {
+            Object valor = grupo.get("_id");
+            if (valor != null) {
+                conteos.put(valor.toString(), ((Number) grupo.get("total")).longValue());
+            }
+        }
+        return conteos;
+    }
+
+    private static void agregarId(Set<String> ids, Object referencia) {
+        String id = ReferenciaUtil.idReferencia(referencia);
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+}
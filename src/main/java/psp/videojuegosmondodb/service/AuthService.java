@@ -1,5 +1,7 @@
 package psp.videojuegosmondodb.service;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -9,7 +11,9 @@ import psp.videojuegosmondodb.dto.LoginRequest;
 import psp.videojuegosmondodb.dto.LoginResponse;
 import psp.videojuegosmondodb.dto.RegistroRequest;
 import psp.videojuegosmondodb.dto.UsuarioDTO;
+import psp.videojuegosmondodb.exception.InvalidTokenException;
 import psp.videojuegosmondodb.model.Usuario;
+import psp.videojuegosmondodb.repository.UsuarioRepository;
 import psp.videojuegosmondodb.util.JwtUtil;
 
 /**
@@ -20,14 +24,20 @@ public class AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final UsuarioService usuarioService;
+    private final UsuarioRepository usuarioRepository;
     private final JwtUtil jwtUtil;
+    private final RevocacionTokens revocacionTokens;
 
     public AuthService(AuthenticationManager authenticationManager,
                       UsuarioService usuarioService,
-                      JwtUtil jwtUtil) {
+                      UsuarioRepository usuarioRepository,
+                      JwtUtil jwtUtil,
+                      RevocacionTokens revocacionTokens) {
         this.authenticationManager = authenticationManager;
         this.usuarioService = usuarioService;
+        this.usuarioRepository = usuarioRepository;
         this.jwtUtil = jwtUtil;
+        this.revocacionTokens = revocacionTokens;
     }
 
     /**
@@ -46,17 +56,85 @@ public class AuthService {
         
         SecurityContextHolder.getContext().setAuthentication(authentication);
         
-        // Obtener usuario y generar token
+        // Obtener usuario y generar tokens
         Usuario usuario = (Usuario) authentication.getPrincipal();
-        String token = jwtUtil.generateToken(usuario);
-        
-        // Crear respuesta
+        return respuesta(usuario);
+    }
+
+    /**
+     * Canjea un token de refresco por un nuevo par de tokens. El token canjeado queda revocado,
+     * de modo que cada token de refresco solo puede usarse una vez
+     * @param refreshToken token de refresco
+     * @return respuesta con los nuevos tokens y datos del usuario
+     * @throws InvalidTokenException si el token no es válido, ha caducado o ya fue usado
+     */
+    public LoginResponse refrescar(String refreshToken) {
+        Claims claims = validarRefresco(refreshToken);
+        // La revocación es la comprobación atómica: de dos canjes simultáneos del mismo token
+        // solo uno la consigue y obtiene tokens nuevos
+        consumirRefresco(claims);
+        // Se vuelve a leer el usuario para reflejar cambios de rol o cuentas eliminadas
+        Usuario usuario = usuarioRepository.findByEmail(claims.getSubject())
+                .orElseThrow(() -> new InvalidTokenException("El usuario del token ya no existe"));
+        return respuesta(usuario);
+    }
+
+    /**
+     * Cierra la sesión revocando el token de acceso de la petición y, si se indica,
+     * el token de refresco asociado
+     * @param claimsAcceso claims del token de acceso verificados por el filtro JWT
+     * @param refreshToken token de refresco, opcional
+     */
+    public void logout(Claims claimsAcceso, String refreshToken) {
+        if (claimsAcceso != null && claimsAcceso.getId() != null) {
+            revocacionTokens.revocar(claimsAcceso.getId(), claimsAcceso.getExpiration());
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            Claims claims = validarRefresco(refreshToken);
+            if (claimsAcceso != null && !claims.getSubject().equals(claimsAcceso.getSubject())) {
+                throw new InvalidTokenException("El token de refresco pertenece a otro usuario");
+            }
+            consumirRefresco(claims);
+        }
+    }
+
+    /**
+     * Revoca un token de refresco ya validado, fallando si otra petición lo usó o revocó antes
+     */
+    private void consumirRefresco(Claims claims) {
+        if (!revocacionTokens.revocarSiNoLoEsta(claims.getId(), claims.getExpiration())) {
+            throw new InvalidTokenException("El token de refresco ya fue usado o revocado");
+        }
+    }
+
+    /**
+     * Verifica un token de refresco: firma, caducidad, tipo y que no conste como revocado.
+     * Esta comprobación solo descarta pronto los tokens ya usados; la definitiva es {@link #consumirRefresco}
+     */
+    private Claims validarRefresco(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtUtil.validarToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Token de refresco no válido o caducado");
+        }
+        if (!JwtUtil.esRefresco(claims) || claims.getId() == null || claims.getSubject() == null) {
+            throw new InvalidTokenException("El token no es un token de refresco");
+        }
+        if (revocacionTokens.estaRevocado(claims.getId())) {
+            throw new InvalidTokenException("El token de refresco ya fue usado o revocado");
+        }
+        return claims;
+    }
+
+    private LoginResponse respuesta(Usuario usuario) {
         return new LoginResponse(
                 usuario.getId(),
                 usuario.getNombre(),
                 usuario.getEmail(),
                 usuario.getRol(),
-                token
+                jwtUtil.generateToken(usuario),
+                jwtUtil.generarRefresco(usuario)
         );
     }
 
@@ -0,0 +1,100 @@
+package psp.videojuegosmondodb.service;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import psp.videojuegosmondodb.dto.ValoracionDTO;
+import psp.videojuegosmondodb.dto.VideojuegoDTO;
+import psp.videojuegosmondodb.exception.ResourceNotFoundException;
+import psp.videojuegosmondodb.repository.FiltroVideojuegos;
+import psp.videojuegosmondodb.repository.OrdenValoraciones;
+import psp.videojuegosmondodb.repository.ValoracionReactivoRepository;
+import psp.videojuegosmondodb.repository.VideojuegoReactivoRepository;
+import psp.videojuegosmondodb.util.Paginacion;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Lecturas del catálogo y de las valoraciones sobre los repositorios reactivos (perfil "reactivo").
+ * Los parámetros se validan y los filtros se resuelven al llamar a cada método, de modo que los
+ * errores de la petición llegan antes de empezar a escribir la respuesta; las consultas a MongoDB
+ * solo se lanzan al suscribirse y avanzan al ritmo que marca el suscriptor. El número de elementos
+ * se acota con {@link Paginacion} igual que en los listados paginados.
+ * La conversión a DTO es la misma que la de {@link VideojuegoService} y {@link ValoracionService}
+ */
+@Service
+@Profile("reactivo")
+public class CatalogoReactivoService {
+
+    private final VideojuegoReactivoRepository videojuegoReactivoRepository;
+    private final ValoracionReactivoRepository valoracionReactivoRepository;
+    private final VideojuegoService videojuegoService;
+    private final ValoracionService valoracionService;
+    private final Paginacion paginacion;
+
+    public CatalogoReactivoService(VideojuegoReactivoRepository videojuegoReactivoRepository,
+                                   ValoracionReactivoRepository valoracionReactivoRepository,
+                                   VideojuegoService videojuegoService,
+                                   ValoracionService valoracionService,
+                                   Paginacion paginacion) {
+        this.videojuegoReactivoRepository = videojuegoReactivoRepository;
+        this.valoracionReactivoRepository = valoracionReactivoRepository;
+        this.videojuegoService = videojuegoService;
+        this.valoracionService = valoracionService;
+        this.paginacion = paginacion;
+    }
+
+    /**
+     * Obtiene un videojuego por su ID
+     * @param id ID del videojuego
+     * @return el videojuego, o error {@link ResourceNotFoundException} si no existe
+     */
+    public Mono<VideojuegoDTO> obtenerPorId(String id) {
+        return videojuegoReactivoRepository.findById(id)
+                .map(videojuegoService::mapToDTO)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Videojuego", "id", id)));
+    }
+
+    /**
+     * Recorre los videojuegos que cumplen el filtro, ordenados por título.
+     * Acepta los mismos filtros que {@link VideojuegoService#filtrar} más el texto del título
+     * @param titulo texto contenido en el título (opcional)
+     * @param generoParam ID o nombre del género (opcional)
+     * @param plataforma plataforma (opcional)
+     * @param desarrolladorParam ID o nombre del desarrollador (opcional)
+     * @param calificacionPEGI calificación PEGI (opcional)
+     * @param desde fecha de lanzamiento mínima (opcional)
+     * @param hasta fecha de lanzamiento máxima (opcional)
+     * @param after cursor de los listados paginados desde el que continuar (opcional)
+     * @param limit número máximo de videojuegos (opcional, acotado como en los listados paginados)
+     * @return flujo de videojuegos
+     */
+    public Flux<VideojuegoDTO> recorrer(String titulo, String generoParam, String plataforma,
+                                        String desarrolladorParam, String calificacionPEGI,
+                                        LocalDate desde, LocalDate hasta, String after, Integer limit) {
+        FiltroVideojuegos filtro = videojuegoService.crearFiltro(generoParam, plataforma, desarrolladorParam,
+                        calificacionPEGI, desde, hasta)
+                .tituloContiene(titulo);
+        String[] cursor = videojuegoService.decodificarCursor(after);
+        return videojuegoReactivoRepository.recorrer(filtro, cursor[0], cursor[1], paginacion.limite(limit))
+                .map(videojuegoService::mapToDTO);
+    }
+
+    /**
+     * Recorre las valoraciones de un videojuego. Un videojuego inexistente produce un flujo vacío:
+     * la respuesta ya se ha empezado a enviar cuando se conoce el resultado de la consulta
+     * @param videojuegoId ID del videojuego
+     * @param orden "recientes" (por defecto) o "puntuacion"
+     * @param after cursor de los listados paginados desde el que continuar (opcional)
+     * @param limit número máximo de valoraciones (opcional, acotado como en los listados paginados)
+     * @return flujo de valoraciones
+     */
+    public Flux<ValoracionDTO> recorrerValoraciones(String videojuegoId, String orden, String after, Integer limit) {
+        OrdenValoraciones ordenacion = OrdenValoraciones.desde(orden);
+        ValoracionService.CursorValoraciones cursor = ValoracionService.decodificarCursor(after, ordenacion);
+        return valoracionReactivoRepository.recorrerPorVideojuego(
+                        videojuegoId, ordenacion, cursor.puntuacion(), cursor.id(), paginacion.limite(limit))
+                .map(valoracionService::mapToDTO);
+    }
+}
@@ -6,6 +6,8 @@ import psp.videojuegosmondodb.exception.DuplicateResourceException;
 import psp.videojuegosmondodb.exception.ResourceNotFoundException;
 import psp.videojuegosmondodb.model.Desarrollador;
 import psp.videojuegosmondodb.repository.DesarrolladorRepository;
+import psp.videojuegosmondodb.repository.ReferenciaCache;
+import psp.videojuegosmondodb.repository.VideojuegoRepository;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,9 +19,15 @@ import java.util.stream.Collectors;
 public class DesarrolladorService {
 
     private final DesarrolladorRepository desarrolladorRepository;
+    private final VideojuegoRepository videojuegoRepository;
+    private final ReferenciaCache referenciaCache;
 
-    public DesarrolladorService(DesarrolladorRepository desarrolladorRepository) {
+    public DesarrolladorService(DesarrolladorRepository desarrolladorRepository,
+                                VideojuegoRepository videojuegoRepository,
+                                ReferenciaCache referenciaCache) {
         this.desarrolladorRepository = desarrolladorRepository;
+        this.videojuegoRepository = videojuegoRepository;
+        this.referenciaCache = referenciaCache;
     }
 
     /**
@@ -56,6 +64,7 @@ public class DesarrolladorService {
         
         Desarrollador desarrollador = mapToEntity(dto);
         Desarrollador desarrolladorGuardado = desarrolladorRepository.save(desarrollador);
+        referenciaCache.invalidarDesarrolladores();
         return mapToDTO(desarrolladorGuardado);
     }
 
@@ -80,6 +89,9 @@ public class DesarrolladorService {
         desarrollador.setAnoFundacion(dto.getAnoFundacion());
         
         Desarrollador desarrolladorActualizado = desarrolladorRepository.save(desarrollador);
+        referenciaCache.invalidarDesarrolladores();
+        // Propagar el nombre del estudio a los videojuegos que lo embeben
+        videojuegoRepository.actualizarNombreDesarrollador(id, desarrolladorActualizado.getNombreEstudio());
         return mapToDTO(desarrolladorActualizado);
     }
 
@@ -92,6 +104,7 @@ public class DesarrolladorService {
             throw new ResourceNotFoundException("Desarrollador", "id", id);
         }
         desarrolladorRepository.deleteById(id);
+        referenciaCache.invalidarDesarrolladores();
     }
 
     /**
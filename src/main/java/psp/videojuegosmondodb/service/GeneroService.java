@@ -6,6 +6,8 @@ import psp.videojuegosmondodb.exception.DuplicateResourceException;
 import psp.videojuegosmondodb.exception.ResourceNotFoundException;
 import psp.videojuegosmondodb.model.Genero;
 import psp.videojuegosmondodb.repository.GeneroRepository;
+import psp.videojuegosmondodb.repository.ReferenciaCache;
+import psp.videojuegosmondodb.repository.VideojuegoRepository;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,9 +19,15 @@ import java.util.stream.Collectors;
 public class GeneroService {
 
     private final GeneroRepository generoRepository;
+    private final VideojuegoRepository videojuegoRepository;
+    private final ReferenciaCache referenciaCache;
 
-    public GeneroService(GeneroRepository generoRepository) {
+    public GeneroService(GeneroRepository generoRepository,
+                         VideojuegoRepository videojuegoRepository,
+                         ReferenciaCache referenciaCache) {
         this.generoRepository = generoRepository;
+        this.videojuegoRepository = videojuegoRepository;
+        this.referenciaCache = referenciaCache;
     }
 
     /**
@@ -58,6 +66,7 @@ public class GeneroService {
         genero.setNombre(dto.getNombre());
         
         Genero generoGuardado = generoRepository.save(genero);
+        referenciaCache.invalidarGeneros();
         return mapToDTO(generoGuardado);
     }
 
@@ -79,6 +88,9 @@ public class GeneroService {
         genero.setNombre(dto.getNombre());
         
         Genero generoActualizado = generoRepository.save(genero);
+        referenciaCache.invalidarGeneros();
+        // Mantener al día la copia embebida en los videojuegos; sin cambio de nombre no modifica nada
+        videojuegoRepository.actualizarNombreGenero(id, generoActualizado.getNombre());
         return mapToDTO(generoActualizado);
     }
 
@@ -91,6 +103,7 @@ public class GeneroService {
             throw new ResourceNotFoundException("Género", "id", id);
         }
         generoRepository.deleteById(id);
+        referenciaCache.invalidarGeneros();
     }
 
     /**
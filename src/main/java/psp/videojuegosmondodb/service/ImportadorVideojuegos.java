@@ -0,0 +1,188 @@
+package psp.videojuegosmondodb.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Service;
+import psp.videojuegosmondodb.dto.ErrorImportacionDTO;
+import psp.videojuegosmondodb.dto.ResultadoImportacionDTO;
+import psp.videojuegosmondodb.dto.VideojuegoDTO;
+import psp.videojuegosmondodb.exception.BadRequestException;
+import psp.videojuegosmondodb.model.Desarrollador;
+import psp.videojuegosmondodb.model.DesarrolladorResumen;
+import psp.videojuegosmondodb.model.Genero;
+import psp.videojuegosmondodb.model.GeneroResumen;
+import psp.videojuegosmondodb.model.Videojuego;
+import psp.videojuegosmondodb.repository.ReferenciaCache;
+import psp.videojuegosmondodb.repository.VideojuegoRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para la importación masiva de videojuegos.
+ * Lee el flujo de entrada fila a fila y trabaja por lotes: valida el lote, resuelve sus
+ * géneros y desarrolladores con una consulta por colección e inserta los válidos con
+ * una operación bulk no ordenada. Las filas incorrectas se informan sin detener la importación.
+ */
+@Service
+public class ImportadorVideojuegos {
+
+    private static final int TAMANO_LOTE = 1000;
+    private static final int MAXIMO_ERRORES_DETALLADOS = 1000;
+
+    private final ObjectReader lector;
+    private final Validator validator;
+    private final VideojuegoRepository videojuegoRepository;
+    private final ReferenciaCache referenciaCache;
+    private final VideojuegoService videojuegoService;
+
+    public ImportadorVideojuegos(ObjectMapper objectMapper,
+                                 Validator validator,
+                                 VideojuegoRepository videojuegoRepository,
+                                 ReferenciaCache referenciaCache,
+                                 VideojuegoService videojuegoService) {
+        this.lector = objectMapper.readerFor(VideojuegoDTO.class);
+        this.validator = validator;
+        this.videojuegoRepository = videojuegoRepository;
+        this.referenciaCache = referenciaCache;
+        this.videojuegoService = videojuegoService;
+    }
+
+    /**
+     * Importa los videojuegos de un flujo JSON, ya sea un array o un objeto por línea (NDJSON)
+     * @param entrada cuerpo de la petición
+     * @return número de filas procesadas, importadas y con error, con el detalle de los errores
+     */
+    public ResultadoImportacionDTO importar(InputStream entrada) {
+        ResultadoImportacionDTO resultado = new ResultadoImportacionDTO();
+        List<Fila> lote = new ArrayList<>(TAMANO_LOTE);
+        long numeroFila = 0;
+
+        try (MappingIterator<VideojuegoDTO> filas = lector.readValues(entrada)) {
+            while (true) {
+                VideojuegoDTO dto;
+                try {
+                    if (!filas.hasNextValue()) {
+                        break;
+                    }
+                    numeroFila++;
+                    dto = filas.nextValue();
+                } catch (JsonProcessingException e) {
+                    // Los errores de tipo permiten seguir con la siguiente fila; los de sintaxis no
+                    registrarError(resultado, numeroFila, e.getOriginalMessage());
+                    if (e instanceof JsonParseException) {
+                        break;
+                    }
+                    continue;
+                }
+
+                lote.add(new Fila(numeroFila, dto));
+                if (lote.size() == TAMANO_LOTE) {
+                    procesarLote(lote, resultado);
+                    lote.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new BadRequestException("No se pudo leer el fichero de importación: " + e.getMessage());
+        }
+        procesarLote(lote, resultado);
+
+        resultado.setProcesados(numeroFila);
+        return resultado;
+    }
+
+    /**
+     * Valida, resuelve referencias e inserta un lote de filas
+     */
+    private void procesarLote(List<Fila> lote, ResultadoImportacionDTO resultado) {
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        Set<String> generoIds = new HashSet<>();
+        Set<String> desarrolladorIds = new HashSet<>();
+        List<Fila> validas = new ArrayList<>(lote.size());
+        for (Fila fila : lote) {
+            Set<ConstraintViolation<VideojuegoDTO>> violaciones = validator.validate(fila.dto());
+            if (!violaciones.isEmpty()) {
+                registrarError(resultado, fila.numero(), violaciones.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+            generoIds.add(fila.dto().getGeneroId());
+            desarrolladorIds.add(fila.dto().getDesarrolladorId());
+            validas.add(fila);
+        }
+
+        Map<String, Genero> generos = referenciaCache.generos(generoIds);
+        Map<String, Desarrollador> desarrolladores = referenciaCache.desarrolladores(desarrolladorIds);
+
+        List<Fila> filasInsertadas = new ArrayList<>(validas.size());
+        List<Videojuego> videojuegos = new ArrayList<>(validas.size());
+        for (Fila fila : validas) {
+            VideojuegoDTO dto = fila.dto();
+            Genero genero = generos.get(dto.getGeneroId());
+            Desarrollador desarrollador = desarrolladores.get(dto.getDesarrolladorId());
+            if (genero == null) {
+                registrarError(resultado, fila.numero(), "Género no encontrado con id: '" + dto.getGeneroId() + "'");
+                continue;
+            }
+            if (desarrollador == null) {
+                registrarError(resultado, fila.numero(),
+                        "Desarrollador no encontrado con id: '" + dto.getDesarrolladorId() + "'");
+                continue;
+            }
+
+            Videojuego videojuego = new Videojuego();
+            // El ID se asigna aquí para poder actualizar los índices en memoria tras la inserción
+            videojuego.setId(dto.getId() != null && ObjectId.isValid(dto.getId())
+                    ? dto.getId() : new ObjectId().toHexString());
+            videojuego.setTitulo(dto.getTitulo());
+            videojuego.setGenero(new GeneroResumen(genero.getId(), genero.getNombre()));
+            videojuego.setDesarrollador(new DesarrolladorResumen(desarrollador.getId(), desarrollador.getNombreEstudio()));
+            videojuego.setPlataforma(dto.getPlataforma());
+            videojuego.setFechaLanzamiento(dto.getFechaLanzamiento());
+            videojuego.setCalificacionPEGI(dto.getCalificacionPEGI());
+            videojuego.setImagenURL(dto.getImagenURL());
+            videojuegos.add(videojuego);
+            filasInsertadas.add(fila);
+        }
+
+        Map<Integer, String> errores = videojuegoRepository.insertarEnBloque(videojuegos);
+        List<Videojuego> insertados = new ArrayList<>(videojuegos.size());
+        for (int i = 0; i < videojuegos.size(); i++) {
+            String error = errores.get(i);
+            if (error != null) {
+                registrarError(resultado, filasInsertadas.get(i).numero(), error);
+            } else {
+                insertados.add(videojuegos.get(i));
+            }
+        }
+        videojuegoService.registrarImportados(insertados);
+        resultado.setImportados(resultado.getImportados() + insertados.size());
+    }
+
+    private static void registrarError(ResultadoImportacionDTO resultado, long fila, String mensaje) {
+        resultado.setFallidos(resultado.getFallidos() + 1);
+        if (resultado.getErrores().size() < MAXIMO_ERRORES_DETALLADOS) {
+            resultado.getErrores().add(new ErrorImportacionDTO(fila, mensaje));
+        }
+    }
+
+    private record Fila(long numero, VideojuegoDTO dto) {
+    }
+}
@@ -0,0 +1,369 @@
+package psp.videojuegosmondodb.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import psp.videojuegosmondodb.dto.SugerenciaDTO;
+import psp.videojuegosmondodb.repository.ValoracionRepository;
+import psp.videojuegosmondodb.repository.VideojuegoRepository;
+import psp.videojuegosmondodb.util.NormalizadorTexto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de autocompletado por prefijo de título.
+ * Los títulos se guardan en arrays ordenados por su forma normalizada, así los que empiezan
+ * por un prefijo forman un rango contiguo que se localiza con búsqueda binaria. Un árbol de
+ * segmentos sobre la popularidad permite sacar los más valorados del rango sin recorrerlo,
+ * de modo que los prefijos cortos cuestan lo mismo que los largos.
+ * Las escrituras se acumulan en una capa de cambios pendientes que se consulta junto a los
+ * arrays y se integra periódicamente en una nueva versión inmutable.
+ */
+@Component
+public class IndiceAutocompletado {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceAutocompletado.class);
+
+    /**
+     * Número máximo de sugerencias que se pueden pedir
+     */
+    public static final int LIMITE_MAXIMO = 50;
+
+    private static final int SIN_POPULARIDAD = -1;
+
+    private static final Comparator<Entrada> ORDEN_SUGERENCIAS = Comparator
+            .comparingInt(Entrada::popularidad).reversed()
+            .thenComparing(Entrada::clave)
+            .thenComparing(Entrada::id);
+
+    private final VideojuegoRepository videojuegoRepository;
+    private final ValoracionRepository valoracionRepository;
+
+    private volatile Estado estado = new Estado(Version.construir(new ArrayList<>()), new ConcurrentHashMap<>());
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+    // Las escrituras comparten el bloqueo de lectura; el de escritura solo se toma para publicar un estado nuevo
+    private final ReentrantReadWriteLock publicacion = new ReentrantReadWriteLock();
+
+    public IndiceAutocompletado(VideojuegoRepository videojuegoRepository,
+                                ValoracionRepository valoracionRepository) {
+        this.videojuegoRepository = videojuegoRepository;
+        this.valoracionRepository = valoracionRepository;
+    }
+
+    /**
+     * Carga el índice completo al arrancar la aplicación
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        cargar();
+    }
+
+    /**
+     * Recarga el índice completo desde MongoDB para refrescar la popularidad de cada videojuego
+     */
+    @Scheduled(initialDelayString = "${autocompletado.recarga-ms:3600000}",
+            fixedDelayString = "${autocompletado.recarga-ms:3600000}")
+    public void cargar() {
+        reconstruccion.lock();
+        try {
+            Map<String, Long> popularidad = valoracionRepository.contarPorVideojuego();
+            List<Entrada> entradas = new ArrayList<>();
+            videojuegoRepository.recorrerTitulos((id, titulo) -> entradas.add(new Entrada(
+                    id, titulo, NormalizadorTexto.normalizar(titulo),
+                    popularidad.getOrDefault(id, 0L).intValue())));
+            // Los cambios que llegan durante la carga quedan pendientes y se aplican por encima
+            publicar(Version.construir(entradas), Map.of());
+            log.info("Índice de autocompletado cargado con {} títulos", entradas.size());
+        } catch (RuntimeException e) {
+            log.warn("No se pudo cargar el índice de autocompletado", e);
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    /**
+     * Integra los cambios pendientes en una nueva versión de los arrays
+     */
+    @Scheduled(fixedDelayString = "${autocompletado.integracion-ms:5000}")
+    public void integrarCambios() {
+        if (estado.pendientes().isEmpty() || !reconstruccion.tryLock()) {
+            return;
+        }
+        try {
+            Estado anterior = estado;
+            Map<String, Cambio> aplicados = new HashMap<>(anterior.pendientes());
+            Version actual = anterior.version();
+            List<Entrada> entradas = new ArrayList<>(actual.ids.length + aplicados.size());
+            Set<String> existentes = new HashSet<>();
+            for (int i = 0; i < actual.ids.length; i++) {
+                Cambio cambio = aplicados.get(actual.ids[i]);
+                if (cambio == null) {
+                    entradas.add(actual.entrada(i));
+                } else if (cambio.entrada() != null) {
+                    entradas.add(cambio.entrada().conPopularidad(actual.popularidad[i]));
+                    existentes.add(actual.ids[i]);
+                }
+            }
+            for (Map.Entry<String, Cambio> e : aplicados.entrySet()) {
+                Entrada entrada = e.getValue().entrada();
+                if (entrada != null && !existentes.contains(e.getKey())) {
+                    entradas.add(entrada.conPopularidad(0));
+                }
+            }
+            publicar(Version.construir(entradas), aplicados);
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    /**
+     * Publica una versión nueva junto con los cambios que todavía no incluye. Se crea un mapa
+     * de pendientes nuevo porque un ConcurrentHashMap no encoge al vaciarse y recorrerlo
+     * costaría lo mismo que en su momento de mayor tamaño
+     */
+    private void publicar(Version version, Map<String, Cambio> integrados) {
+        publicacion.writeLock().lock();
+        try {
+            Map<String, Cambio> restantes = new ConcurrentHashMap<>();
+            estado.pendientes().forEach((id, cambio) -> {
+                // Solo se descartan los cambios que no se han vuelto a modificar mientras tanto
+                if (integrados.get(id) != cambio) {
+                    restantes.put(id, cambio);
+                }
+            });
+            estado = new Estado(version, restantes);
+        } finally {
+            publicacion.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registra el alta o el cambio de título de un videojuego
+     */
+    public void guardar(String id, String titulo) {
+        registrar(id, new Cambio(new Entrada(id, titulo, NormalizadorTexto.normalizar(titulo), SIN_POPULARIDAD)));
+    }
+
+    /**
+     * Registra la baja de un videojuego
+     */
+    public void eliminar(String id) {
+        registrar(id, new Cambio(null));
+    }
+
+    private void registrar(String id, Cambio cambio) {
+        publicacion.readLock().lock();
+        try {
+            estado.pendientes().put(id, cambio);
+        } finally {
+            publicacion.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene el título de un videojuego sin consultar la base de datos
+     * @param id ID del videojuego
+     * @return el título, o vacío si el índice no lo conoce o está eliminado
+     */
+    public Optional<String> titulo(String id) {
+        Estado instantanea = estado;
+        Cambio cambio = instantanea.pendientes().get(id);
+        if (cambio != null) {
+            return Optional.ofNullable(cambio.entrada()).map(Entrada::titulo);
+        }
+        int ordinal = instantanea.version().ordinal(id);
+        return ordinal < 0 ? Optional.empty() : Optional.of(instantanea.version().titulos[ordinal]);
+    }
+
+    /**
+     * Devuelve las sugerencias cuyo título normalizado empieza por el prefijo,
+     * de la más popular a la menos popular
+     */
+    public List<SugerenciaDTO> sugerir(String prefijo, int limite) {
+        String clave = NormalizadorTexto.normalizar(prefijo);
+        if (clave.isEmpty()) {
+            return List.of();
+        }
+        Estado instantanea = estado;
+        Version actual = instantanea.version();
+        Map<String, Cambio> pendientes = instantanea.pendientes();
+        PriorityQueue<Entrada> mejores = new PriorityQueue<>(limite + 1, ORDEN_SUGERENCIAS.reversed());
+
+        // Se extraen los rangos por orden de popularidad hasta reunir el límite sin cambios pendientes
+        int desde = actual.inicio(clave);
+        int hasta = actual.inicio(clave + Character.MAX_VALUE);
+        PriorityQueue<int[]> rangos = new PriorityQueue<>((a, b) -> actual.comparar(a[0], b[0]));
+        if (desde < hasta) {
+            rangos.add(new int[]{actual.mejor(desde, hasta), desde, hasta});
+        }
+        int encontradas = 0;
+        while (encontradas < limite && !rangos.isEmpty()) {
+            int[] rango = rangos.poll();
+            int ordinal = rango[0];
+            if (!pendientes.containsKey(actual.ids[ordinal])) {
+                mejores.add(actual.entrada(ordinal));
+                encontradas++;
+            }
+            if (rango[1] < ordinal) {
+                rangos.add(new int[]{actual.mejor(rango[1], ordinal), rango[1], ordinal});
+            }
+            if (ordinal + 1 < rango[2]) {
+                rangos.add(new int[]{actual.mejor(ordinal + 1, rango[2]), ordinal + 1, rango[2]});
+            }
+        }
+
+        for (Cambio cambio : pendientes.values()) {
+            Entrada entrada = cambio.entrada();
+            if (entrada != null && entrada.clave().startsWith(clave)) {
+                int ordinal = actual.ordinal(entrada.id());
+                acotar(mejores, entrada.conPopularidad(ordinal < 0 ? 0 : actual.popularidad[ordinal]), limite);
+            }
+        }
+
+        List<Entrada> ordenadas = new ArrayList<>(mejores);
+        ordenadas.sort(ORDEN_SUGERENCIAS);
+        List<SugerenciaDTO> sugerencias = new ArrayList<>(ordenadas.size());
+        for (Entrada entrada : ordenadas) {
+            sugerencias.add(new SugerenciaDTO(entrada.id(), entrada.titulo()));
+        }
+        return sugerencias;
+    }
+
+    private static void acotar(PriorityQueue<Entrada> mejores, Entrada entrada, int limite) {
+        mejores.add(entrada);
+        if (mejores.size() > limite) {
+            mejores.poll();
+        }
+    }
+
+    private record Entrada(String id, String titulo, String clave, int popularidad) {
+
+        Entrada conPopularidad(int valor) {
+            return popularidad == SIN_POPULARIDAD ? new Entrada(id, titulo, clave, valor) : this;
+        }
+    }
+
+    /**
+     * Cambio pendiente; una entrada nula indica que el videojuego se ha eliminado
+     */
+    private record Cambio(Entrada entrada) {
+    }
+
+    private record Estado(Version version, Map<String, Cambio> pendientes) {
+    }
+
+    /**
+     * Versión inmutable del índice
+     */
+    private static final class Version {
+
+        private final String[] ids;
+        private final String[] titulos;
+        private final String[] claves;
+        private final int[] popularidad;
+        private final Map<String, Integer> ordinalPorId;
+        private final int[] arbol;
+
+        private Version(List<Entrada> entradas) {
+            int tamano = entradas.size();
+            ids = new String[tamano];
+            titulos = new String[tamano];
+            claves = new String[tamano];
+            popularidad = new int[tamano];
+            ordinalPorId = new HashMap<>(tamano * 2);
+            for (int i = 0; i < tamano; i++) {
+                Entrada entrada = entradas.get(i);
+                ids[i] = entrada.id();
+                titulos[i] = entrada.titulo();
+                claves[i] = entrada.clave();
+                popularidad[i] = entrada.popularidad();
+                ordinalPorId.put(entrada.id(), i);
+            }
+            arbol = new int[tamano * 2];
+            for (int i = 0; i < tamano; i++) {
+                arbol[tamano + i] = i;
+            }
+            for (int nodo = tamano - 1; nodo > 0; nodo--) {
+                arbol[nodo] = masPopular(arbol[nodo * 2], arbol[nodo * 2 + 1]);
+            }
+        }
+
+        static Version construir(List<Entrada> entradas) {
+            entradas.sort(Comparator.comparing(Entrada::clave).thenComparing(Entrada::id));
+            return new Version(entradas);
+        }
+
+        Entrada entrada(int ordinal) {
+            return new Entrada(ids[ordinal], titulos[ordinal], claves[ordinal], popularidad[ordinal]);
+        }
+
+        int ordinal(String id) {
+            Integer ordinal = ordinalPorId.get(id);
+            return ordinal == null ? -1 : ordinal;
+        }
+
+        /**
+         * Primera posición cuya clave es mayor o igual que la dada
+         */
+        int inicio(String clave) {
+            int desde = 0;
+            int hasta = claves.length;
+            while (desde < hasta) {
+                int medio = (desde + hasta) >>> 1;
+                if (claves[medio].compareTo(clave) < 0) {
+                    desde = medio + 1;
+                } else {
+                    hasta = medio;
+                }
+            }
+            return desde;
+        }
+
+        /**
+         * Orden de sugerencia entre dos posiciones: más popular primero y, a igual
+         * popularidad, la que va antes alfabéticamente
+         */
+        int comparar(int a, int b) {
+            int porPopularidad = Integer.compare(popularidad[b], popularidad[a]);
+            return porPopularidad != 0 ? porPopularidad : Integer.compare(a, b);
+        }
+
+        private int masPopular(int a, int b) {
+            return comparar(a, b) <= 0 ? a : b;
+        }
+
+        /**
+         * Posición más popular del rango [desde, hasta), que no puede estar vacío
+         */
+        int mejor(int desde, int hasta) {
+            int tamano = ids.length;
+            int resultado = desde;
+            for (int izquierda = desde + tamano, derecha = hasta + tamano; izquierda < derecha;
+                 izquierda >>= 1, derecha >>= 1) {
+                if ((izquierda & 1) == 1) {
+                    resultado = masPopular(resultado, arbol[izquierda++]);
+                }
+                if ((derecha & 1) == 1) {
+                    resultado = masPopular(resultado, arbol[--derecha]);
+                }
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package psp.videojuegosmondodb.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import psp.videojuegosmondodb.repository.VideojuegoRepository;
+import psp.videojuegosmondodb.util.NormalizadorTexto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas en memoria sobre los títulos de los videojuegos.
+ * Resuelve búsquedas por subcadena sin recorrer la colección: intersecta las listas
+ * de ordinales de los trigramas del texto buscado y verifica los candidatos.
+ * Coincide con la búsqueda por expresión regular de MongoDB que se usa mientras no está listo
+ * (subcadena en cualquier posición, sin distinguir mayúsculas), salvo en que además ignora
+ * tildes y espacios repetidos, por lo que puede encontrar algún título más; el orden sí cambia,
+ * por relevancia en lugar de solo por título.
+ * Se carga al arrancar, se reintenta la carga periódicamente si falla y se mantiene con las altas,
+ * cambios y bajas de VideojuegoService.
+ */
+@Component
+public class IndiceTitulos {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceTitulos.class);
+
+    private static final int RANGO_EXACTO = 0;
+    private static final int RANGO_PREFIJO = 1;
+    private static final int RANGO_INICIO_PALABRA = 2;
+    private static final int RANGO_CONTIENE = 3;
+
+    private final VideojuegoRepository videojuegoRepository;
+    // Referencia a través del proxy de Spring, para que los reintentos de carga también sean @Async
+    private final ObjectProvider<IndiceTitulos> proxy;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Indice indice = new Indice();
+    private volatile boolean listo;
+
+    // Cambios recibidos mientras se construye el índice inicial, se aplican al terminar
+    private List<Runnable> cambiosDuranteCarga;
+
+    public IndiceTitulos(VideojuegoRepository videojuegoRepository, ObjectProvider<IndiceTitulos> proxy) {
+        this.videojuegoRepository = videojuegoRepository;
+        this.proxy = proxy;
+    }
+
+    /**
+     * Construye el índice con todos los títulos de la colección.
+     * No hace nada si ya hay otra carga en curso
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        lock.writeLock().lock();
+        try {
+            if (cambiosDuranteCarga != null) {
+                return;
+            }
+            cambiosDuranteCarga = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Indice nuevo = new Indice();
+        try {
+            videojuegoRepository.recorrerTitulos(nuevo::agregar);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo cargar el índice de títulos, las búsquedas usarán MongoDB hasta el próximo intento", e);
+            lock.writeLock().lock();
+            try {
+                cambiosDuranteCarga = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            indice = nuevo;
+            cambiosDuranteCarga.forEach(Runnable::run);
+            cambiosDuranteCarga = null;
+            listo = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de títulos cargado con {} videojuegos", nuevo.ordinalPorId.size());
+    }
+
+    /**
+     * Vuelve a intentar la carga mientras el índice no esté listo, por si falló la del arranque.
+     * La carga se lanza a través del proxy para que recorra la colección en el executor de @Async
+     * y no ocupe el hilo de las tareas programadas
+     */
+    @Scheduled(initialDelayString = "${indice-titulos.reintento-ms:30000}",
+            fixedDelayString = "${indice-titulos.reintento-ms:30000}")
+    public void reintentarCarga() {
+        if (!listo) {
+            proxy.getObject().cargar();
+        }
+    }
+
+    /**
+     * Indica si el índice está cargado y puede atender búsquedas
+     * @return true si está listo
+     */
+    public boolean estaListo() {
+        return listo;
+    }
+
+    /**
+     * Añade o actualiza el título de un videojuego
+     * @param id ID del videojuego
+     * @param titulo título del videojuego
+     */
+    public void agregar(String id, String titulo) {
+        aplicar(() -> indice.agregar(id, titulo));
+    }
+
+    /**
+     * Elimina un videojuego del índice
+     * @param id ID del videojuego
+     */
+    public void eliminar(String id) {
+        aplicar(() -> indice.eliminar(id));
+    }
+
+    /**
+     * Busca los videojuegos cuyo título contiene el texto, ordenados por relevancia:
+     * coincidencia exacta, prefijo, inicio de palabra y resto; a igualdad, por título e ID
+     * @param texto texto a buscar
+     * @param despuesTitulo título del último resultado de la página anterior (opcional)
+     * @param despuesId ID del último resultado de la página anterior (opcional)
+     * @param limite número máximo de resultados
+     * @return IDs de los videojuegos en orden de relevancia
+     */
+    public List<String> buscar(String texto, String despuesTitulo, String despuesId, int limite) {
+        String consulta = NormalizadorTexto.normalizar(texto);
+        lock.readLock().lock();
+        try {
+            Clave despues = null;
+            if (despuesId != null) {
+                String tituloNormalizado = NormalizadorTexto.normalizar(despuesTitulo);
+                despues = new Clave(rango(tituloNormalizado, consulta), tituloNormalizado, despuesId);
+            }
+            return indice.buscar(consulta, despues, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void aplicar(Runnable cambio) {
+        lock.writeLock().lock();
+        try {
+            cambio.run();
+            if (cambiosDuranteCarga != null) {
+                cambiosDuranteCarga.add(cambio);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int rango(String titulo, String consulta) {
+        if (titulo.equals(consulta)) {
+            return RANGO_EXACTO;
+        }
+        if (titulo.startsWith(consulta)) {
+            return RANGO_PREFIJO;
+        }
+        int posicion = titulo.indexOf(consulta);
+        while (posicion > 0) {
+            if (!Character.isLetterOrDigit(titulo.charAt(posicion - 1))) {
+                return RANGO_INICIO_PALABRA;
+            }
+            posicion = titulo.indexOf(consulta, posicion + 1);
+        }
+        return RANGO_CONTIENE;
+    }
+
+    /**
+     * Clave de ordenación de un resultado
+     */
+    private record Clave(int rango, String titulo, String id) implements Comparable<Clave> {
+
+        static int comparar(int rango, String titulo, String id, Clave otra) {
+            int resultado = Integer.compare(rango, otra.rango);
+            if (resultado == 0) {
+                resultado = titulo.compareTo(otra.titulo);
+            }
+            return resultado != 0 ? resultado : id.compareTo(otra.id);
+        }
+
+        @Override
+        public int compareTo(Clave otra) {
+            return comparar(rango, titulo, id, otra);
+        }
+    }
+
+    /**
+     * Estructura del índice. Cada título indexado recibe un ordinal creciente, por lo que
+     * las listas de ordinales de cada trigrama están siempre ordenadas.
+     * No es segura para hilos: el acceso se protege desde IndiceTitulos.
+     */
+    private static final class Indice {
+
+        private String[] ids = new String[1024];
+        private String[] titulos = new String[1024];
+        private int tamano;
+        private int borrados;
+        private final Map<String, Integer> ordinalPorId = new HashMap<>();
+        private final Map<Long, ListaOrdinales> trigramas = new HashMap<>();
+        // Fragmentos de uno y dos caracteres de cada título, para las consultas cortas
+        private final Map<Integer, ListaOrdinales> fragmentosCortos = new HashMap<>();
+
+        void agregar(String id, String titulo) {
+            eliminar(id);
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+                titulos = Arrays.copyOf(titulos, tamano * 2);
+            }
+            int ordinal = tamano++;
+            String normalizado = NormalizadorTexto.normalizar(titulo);
+            ids[ordinal] = id;
+            titulos[ordinal] = normalizado;
+            ordinalPorId.put(id, ordinal);
+            for (long trigrama : trigramas(normalizado)) {
+                trigramas.computeIfAbsent(trigrama, t -> new ListaOrdinales()).agregar(ordinal);
+            }
+            for (int i = 0; i < normalizado.length(); i++) {
+                fragmentosCortos.computeIfAbsent(claveCorta(normalizado, i, 1), p -> new ListaOrdinales()).agregar(ordinal);
+                if (i + 1 < normalizado.length()) {
+                    fragmentosCortos.computeIfAbsent(claveCorta(normalizado, i, 2), p -> new ListaOrdinales()).agregar(ordinal);
+                }
+            }
+        }
+
+        void eliminar(String id) {
+            Integer ordinal = ordinalPorId.remove(id);
+            if (ordinal != null) {
+                borrados++;
+                titulos[ordinal] = null;
+                if (borrados > Math.max(1024, tamano / 4)) {
+                    compactar();
+                }
+            }
+        }
+
+        List<String> buscar(String consulta, Clave despues, int limite) {
+            if (consulta.isEmpty()) {
+                return List.of();
+            }
+
+            // Montículo con los mejores "limite" resultados posteriores al cursor (el peor en la cabeza)
+            PriorityQueue<Clave> mejores = new PriorityQueue<>(limite + 1, Comparator.reverseOrder());
+            if (consulta.length() < 3) {
+                // Las consultas de uno o dos caracteres no tienen trigramas: se usa su propia lista
+                ListaOrdinales lista = fragmentosCortos.get(claveCorta(consulta, 0, consulta.length()));
+                for (int i = 0; lista != null && i < lista.tamano; i++) {
+                    considerar(lista.ordinales[i], consulta, despues, limite, mejores);
+                }
+            } else {
+                for (int ordinal : candidatos(consulta)) {
+                    considerar(ordinal, consulta, despues, limite, mejores);
+                }
+            }
+
+            List<Clave> ordenados = new ArrayList<>(mejores);
+            ordenados.sort(null);
+            List<String> resultado = new ArrayList<>(ordenados.size());
+            for (Clave clave : ordenados) {
+                resultado.add(clave.id());
+            }
+            return resultado;
+        }
+
+        private void considerar(int ordinal, String consulta, Clave despues, int limite, PriorityQueue<Clave> mejores) {
+            String titulo = titulos[ordinal];
+            if (titulo == null || !titulo.contains(consulta)) {
+                return;
+            }
+            int rango = rango(titulo, consulta);
+            String id = ids[ordinal];
+            // Se compara antes de crear la clave para no reservar memoria por cada candidato descartado
+            if (despues != null && Clave.comparar(rango, titulo, id, despues) <= 0) {
+                return;
+            }
+            if (mejores.size() >= limite && Clave.comparar(rango, titulo, id, mejores.peek()) >= 0) {
+                return;
+            }
+            mejores.add(new Clave(rango, titulo, id));
+            if (mejores.size() > limite) {
+                mejores.poll();
+            }
+        }
+
+        /**
+         * Intersecta las listas de ordinales de los trigramas de la consulta,
+         * empezando por la más corta
+         */
+        private int[] candidatos(String consulta) {
+            long[] claves = trigramas(consulta);
+            ListaOrdinales[] listas = new ListaOrdinales[claves.length];
+            for (int i = 0; i < claves.length; i++) {
+                listas[i] = trigramas.get(claves[i]);
+                if (listas[i] == null) {
+                    return new int[0];
+                }
+            }
+            Arrays.sort(listas, Comparator.comparingInt(l -> l.tamano));
+
+            int[] resultado = Arrays.copyOf(listas[0].ordinales, listas[0].tamano);
+            int n = resultado.length;
+            for (int i = 1; i < listas.length && n > 0; i++) {
+                n = listas[i].intersectar(resultado, n);
+            }
+            return Arrays.copyOf(resultado, n);
+        }
+
+        private void compactar() {
+            String[] idsActuales = ids;
+            String[] titulosActuales = titulos;
+            int tamanoActual = tamano;
+
+            ids = new String[Math.max(1024, ordinalPorId.size() * 2)];
+            titulos = new String[ids.length];
+            tamano = 0;
+            borrados = 0;
+            ordinalPorId.clear();
+            trigramas.clear();
+            fragmentosCortos.clear();
+            for (int ordinal = 0; ordinal < tamanoActual; ordinal++) {
+                if (titulosActuales[ordinal] != null) {
+                    // Los títulos guardados ya están normalizados y normalizar es idempotente
+                    agregar(idsActuales[ordinal], titulosActuales[ordinal]);
+                }
+            }
+        }
+
+        /**
+         * Obtiene los trigramas de un texto, cada uno empaquetado en un long.
+         * Puede contener repetidos; ListaOrdinales descarta el ordinal repetido
+         */
+        private static long[] trigramas(String texto) {
+            if (texto.length() < 3) {
+                return new long[0];
+            }
+            long[] resultado = new long[texto.length() - 2];
+            for (int i = 0; i < resultado.length; i++) {
+                resultado[i] = ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+            }
+            return resultado;
+        }
+
+        /**
+         * Empaqueta en un int un fragmento de uno o dos caracteres
+         */
+        private static int claveCorta(String texto, int desde, int longitud) {
+            int clave = texto.charAt(desde) << 16;
+            return longitud == 2 ? clave | texto.charAt(desde + 1) : clave;
+        }
+    }
+
+    /**
+     * Lista creciente de ordinales sobre un array de int primitivos
+     */
+    private static final class ListaOrdinales {
+
+        private int[] ordinales = new int[4];
+        private int tamano;
+
+        void agregar(int ordinal) {
+            // Los ordinales llegan en orden creciente, así que un repetido siempre es el último
+            if (tamano > 0 && ordinales[tamano - 1] == ordinal) {
+                return;
+            }
+            if (tamano == ordinales.length) {
+                ordinales = Arrays.copyOf(ordinales, tamano * 2);
+            }
+            ordinales[tamano++] = ordinal;
+        }
+
+        /**
+         * Deja en las primeras posiciones de "candidatos" los que también están en esta lista
+         * @return número de candidatos que quedan
+         */
+        int intersectar(int[] candidatos, int n) {
+            int quedan = 0;
+            int desde = 0;
+            for (int i = 0; i < n; i++) {
+                int posicion = Arrays.binarySearch(ordinales, desde, tamano, candidatos[i]);
+                if (posicion >= 0) {
+                    candidatos[quedan++] = candidatos[i];
+                    desde = posicion + 1;
+                } else {
+                    desde = -posicion - 1;
+                }
+            }
+            return quedan;
+        }
+    }
+}
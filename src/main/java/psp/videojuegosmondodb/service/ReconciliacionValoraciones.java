@@ -0,0 +1,120 @@
+package psp.videojuegosmondodb.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import psp.videojuegosmondodb.dto.ReconciliacionDTO;
+import psp.videojuegosmondodb.exception.OperationInProgressException;
+import psp.videojuegosmondodb.repository.ValoracionRepository;
+import psp.videojuegosmondodb.repository.VideojuegoRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Servicio que reconstruye las estadísticas de valoración de todos los videojuegos
+ * a partir de la colección de valoraciones.
+ * Las estadísticas se mantienen con $inc al crear cada valoración; este proceso corrige
+ * cualquier desviación (valoraciones borradas, fallos entre el guardado y el $inc, datos
+ * cargados por otros medios). Recorre los IDs con un cursor y procesa los lotes en paralelo,
+ * en hilos virtuales si están activados (spring.threads.virtual.enabled).
+ * Una valoración creada mientras se procesa su lote puede perderse hasta la siguiente ejecución.
+ */
+@Service
+public class ReconciliacionValoraciones {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliacionValoraciones.class);
+
+    private final VideojuegoRepository videojuegoRepository;
+    private final ValoracionRepository valoracionRepository;
+    private final int tamanoLote;
+    private final int hilos;
+    private final boolean hilosVirtuales;
+    private final ReentrantLock enCurso = new ReentrantLock();
+
+    public ReconciliacionValoraciones(VideojuegoRepository videojuegoRepository,
+                                      ValoracionRepository valoracionRepository,
+                                      @Value("${valoraciones.reconciliacion.tamano-lote:500}") int tamanoLote,
+                                      @Value("${valoraciones.reconciliacion.hilos:4}") int hilos,
+                                      Environment environment) {
+        this.videojuegoRepository = videojuegoRepository;
+        this.valoracionRepository = valoracionRepository;
+        this.tamanoLote = tamanoLote;
+        this.hilos = hilos;
+        this.hilosVirtuales = Threading.VIRTUAL.isActive(environment);
+    }
+
+    /**
+     * Reconstrucción programada, por defecto cada noche
+     */
+    @Scheduled(cron = "${valoraciones.reconciliacion.cron:0 30 4 * * *}")
+    public void reconciliarProgramado() {
+        try {
+            ReconciliacionDTO resultado = reconciliar();
+            log.info("Estadísticas de valoración reconstruidas: {} videojuegos en {} ms",
+                    resultado.getVideojuegos(), resultado.getDuracionMs());
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron reconstruir las estadísticas de valoración", e);
+        }
+    }
+
+    /**
+     * Reconstruye las estadísticas de todos los videojuegos. Cada lote se resuelve con una
+     * agregación sobre las valoraciones del lote y una escritura bulk
+     * @return número de videojuegos y lotes procesados y duración
+     */
+    public ReconciliacionDTO reconciliar() {
+        if (!enCurso.tryLock()) {
+            throw new OperationInProgressException("Ya hay una reconstrucción de estadísticas en curso");
+        }
+        long inicio = System.currentTimeMillis();
+        // Un hilo por lote, como mucho "hilos" a la vez: con hilos virtuales las esperas a MongoDB
+        // no ocupan hilos de plataforma
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("reconciliacion-");
+        executor.setVirtualThreads(hilosVirtuales);
+        executor.setConcurrencyLimit(hilos);
+        try {
+            AtomicLong videojuegos = new AtomicLong();
+            // Limita los lotes leídos y aún sin procesar para no acumular todos los IDs en memoria
+            Semaphore permisos = new Semaphore(hilos * 2);
+            List<CompletableFuture<Void>> tareas = new ArrayList<>();
+            List<String> lote = new ArrayList<>(tamanoLote);
+
+            videojuegoRepository.recorrerTitulos((id, titulo) -> {
+                lote.add(id);
+                if (lote.size() == tamanoLote) {
+                    tareas.add(procesar(List.copyOf(lote), videojuegos, permisos, executor));
+                    lote.clear();
+                }
+            });
+            if (!lote.isEmpty()) {
+                tareas.add(procesar(List.copyOf(lote), videojuegos, permisos, executor));
+            }
+
+            CompletableFuture.allOf(tareas.toArray(new CompletableFuture[0])).join();
+            return new ReconciliacionDTO(videojuegos.get(), tareas.size(), System.currentTimeMillis() - inicio);
+        } finally {
+            executor.close();
+            enCurso.unlock();
+        }
+    }
+
+    private CompletableFuture<Void> procesar(List<String> ids, AtomicLong videojuegos,
+                                             Semaphore permisos, Executor executor) {
+        permisos.acquireUninterruptibly();
+        return CompletableFuture.runAsync(() -> {
+            videojuegoRepository.guardarEstadisticas(valoracionRepository.calcularEstadisticas(ids));
+            videojuegos.addAndGet(ids.size());
+        }, executor).whenComplete((resultado, error) -> permisos.release());
+    }
+}
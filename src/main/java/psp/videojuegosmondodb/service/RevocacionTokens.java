@@ -0,0 +1,146 @@
+package psp.videojuegosmondodb.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import psp.videojuegosmondodb.model.TokenRevocado;
+import psp.videojuegosmondodb.repository.TokenRevocadoRepository;
+import psp.videojuegosmondodb.util.FiltroBloom;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Conjunto de tokens revocados, guardado en MongoDB y consultado a través de un filtro de Bloom
+ * en memoria. Comprobar un token que no está revocado (el caso habitual) cuesta unos pocos hashes;
+ * solo los positivos del filtro, revocados de verdad o falsos positivos, se confirman en MongoDB.
+ * El filtro se reconstruye periódicamente para incorporar las revocaciones hechas en otras
+ * instancias y desprenderse de los tokens ya expirados.
+ */
+@Service
+public class RevocacionTokens {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocacionTokens.class);
+    private static final int ELEMENTOS_MINIMOS = 1024;
+
+    private final TokenRevocadoRepository tokenRevocadoRepository;
+    private final double probabilidadFalsoPositivo;
+    // Las revocaciones (lectura) pueden ir en paralelo; la reconstrucción (escritura) las excluye
+    // para que ninguna revocación local quede fuera del filtro nuevo
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private volatile FiltroBloom filtro;
+    private volatile boolean cargado;
+
+    public RevocacionTokens(TokenRevocadoRepository tokenRevocadoRepository,
+                            @Value("${jwt.revocacion.falsos-positivos:0.01}") double probabilidadFalsoPositivo) {
+        this.tokenRevocadoRepository = tokenRevocadoRepository;
+        this.probabilidadFalsoPositivo = probabilidadFalsoPositivo;
+        this.filtro = new FiltroBloom(ELEMENTOS_MINIMOS, probabilidadFalsoPositivo);
+    }
+
+    /**
+     * Revoca un token hasta su expiración
+     * @param jti identificador del token
+     * @param expiracion fecha de expiración del token
+     */
+    public void revocar(String jti, Date expiracion) {
+        cerrojo.readLock().lock();
+        try {
+            tokenRevocadoRepository.save(new TokenRevocado(jti, expiracion));
+            filtro.agregar(jti);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Revoca un token solo si no lo estaba ya. La inserción falla con clave duplicada si otra
+     * petición lo revocó antes, así que de varias llamadas concurrentes con el mismo token solo
+     * una obtiene true: sirve de comprobación atómica para los tokens de un solo uso
+     * @param jti identificador del token
+     * @param expiracion fecha de expiración del token
+     * @return true si esta llamada lo revocó; false si ya estaba revocado
+     */
+    public boolean revocarSiNoLoEsta(String jti, Date expiracion) {
+        cerrojo.readLock().lock();
+        try {
+            tokenRevocadoRepository.insert(new TokenRevocado(jti, expiracion));
+            filtro.agregar(jti);
+            return true;
+        } catch (DuplicateKeyException e) {
+            filtro.agregar(jti);
+            return false;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Comprueba si un token está revocado
+     * @param jti identificador del token
+     * @return true si el token fue revocado
+     */
+    public boolean estaRevocado(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        // Hasta la primera carga el filtro no es fiable: se consulta directamente
+        if (cargado && !filtro.puedeContener(jti)) {
+            return false;
+        }
+        return tokenRevocadoRepository.existsById(jti);
+    }
+
+    /**
+     * Carga el filtro al arrancar la aplicación
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        reconstruirProgramado();
+    }
+
+    /**
+     * Reconstrucción periódica del filtro, por defecto cada minuto
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocacion.recarga-ms:60000}",
+            initialDelayString = "${jwt.revocacion.recarga-ms:60000}")
+    public void reconstruirProgramado() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            // Se mantiene el filtro anterior; las revocaciones locales siguen incluidas en él
+            log.warn("No se pudo reconstruir el filtro de tokens revocados", e);
+        }
+    }
+
+    /**
+     * Vuelve a crear el filtro a partir de los tokens revocados que siguen en MongoDB,
+     * dimensionado para el número actual de revocaciones
+     */
+    void reconstruir() {
+        cerrojo.writeLock().lock();
+        try {
+            List<String> ids = new ArrayList<>();
+            try (Stream<TokenRevocado> tokens = tokenRevocadoRepository.recorrerIds()) {
+                tokens.forEach(token -> ids.add(token.getId()));
+            }
+            // Margen para las revocaciones que lleguen hasta la siguiente reconstrucción
+            FiltroBloom nuevo = new FiltroBloom(Math.max(ELEMENTOS_MINIMOS, ids.size() * 2), probabilidadFalsoPositivo);
+            ids.forEach(nuevo::agregar);
+            filtro = nuevo;
+            cargado = true;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package psp.videojuegosmondodb.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -10,7 +14,11 @@ import psp.videojuegosmondodb.exception.ResourceNotFoundException;
 import psp.videojuegosmondodb.model.Rol;
 import psp.videojuegosmondodb.model.Usuario;
 import psp.videojuegosmondodb.repository.UsuarioRepository;
+import psp.videojuegosmondodb.repository.ValoracionRepository;
+import psp.videojuegosmondodb.util.CacheAcotada;
+import psp.videojuegosmondodb.util.CacheAcotadaMetricas;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,14 +26,29 @@ import java.util.stream.Collectors;
  * Servicio para operaciones con usuarios
  */
 @Service
-public class UsuarioService implements UserDetailsService {
+public class UsuarioService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UsuarioRepository usuarioRepository;
+    private final ValoracionRepository valoracionRepository;
     private final PasswordEncoder passwordEncoder;
+    // Usuarios autenticados por email, sin contraseña; null si la caché está desactivada
+    private final CacheAcotada<String, Usuario> principales;
 
-    public UsuarioService(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder) {
+    public UsuarioService(UsuarioRepository usuarioRepository,
+                          ValoracionRepository valoracionRepository,
+                          PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${cache.principales.ttl-segundos:60}") long ttlPrincipalesSegundos,
+                          @Value("${cache.principales.tamano-maximo:10000}") int tamanoMaximoPrincipales) {
         this.usuarioRepository = usuarioRepository;
+        this.valoracionRepository = valoracionRepository;
         this.passwordEncoder = passwordEncoder;
+        if (ttlPrincipalesSegundos > 0) {
+            this.principales = new CacheAcotada<>(tamanoMaximoPrincipales, Duration.ofSeconds(ttlPrincipalesSegundos));
+            new CacheAcotadaMetricas(principales, "usuarios.principales").bindTo(meterRegistry);
+        } else {
+            this.principales = null;
+        }
     }
 
     /**
@@ -39,6 +62,43 @@ public class UsuarioService implements UserDetailsService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario", "email", email));
     }
 
+    /**
+     * Guarda el hash rehecho de un usuario que acaba de iniciar sesión con un hash antiguo
+     * (sin prefijo de algoritmo o con un coste de bcrypt menor que el actual).
+     * Lo invoca {@link psp.videojuegosmondodb.config.ProveedorAutenticacion} tras comprobar la contraseña.
+     * Solo se escribe el campo password: el usuario se leyó al iniciar sesión y guardarlo entero
+     * desharía un cambio de rol, nombre o email hecho por un administrador entretanto
+     * @param user el usuario autenticado, tal como lo devolvió {@link #loadUserByUsername}
+     * @param newPassword nuevo hash de la contraseña
+     * @return el usuario con el hash actualizado
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Usuario usuario = (Usuario) user;
+        usuarioRepository.actualizarPassword(usuario.getId(), newPassword);
+        usuario.setPassword(newPassword);
+        return usuario;
+    }
+
+    /**
+     * Obtiene el usuario autenticado de una petición con token. Se guarda en caché un tiempo
+     * corto para no consultar MongoDB en cada petición; la copia no incluye la contraseña,
+     * que solo se necesita al iniciar sesión con {@link #loadUserByUsername}
+     * @param email el email del usuario (sujeto del token)
+     * @return el usuario, sin contraseña
+     */
+    public Usuario cargarPrincipal(String email) {
+        if (principales == null) {
+            return sinPassword(loadUserByUsername(email));
+        }
+        Usuario usuario = principales.obtener(email,
+                clave -> usuarioRepository.findByEmail(clave).map(UsuarioService::sinPassword).orElse(null));
+        if (usuario == null) {
+            throw new ResourceNotFoundException("Usuario", "email", email);
+        }
+        return usuario;
+    }
+
     /**
      * Obtiene todos los usuarios
      * @return lista de usuarios
@@ -117,11 +177,17 @@ public class UsuarioService implements UserDetailsService {
             throw new DuplicateResourceException("Ya existe un usuario con el email: " + dto.getEmail());
         }
         
+        String emailAnterior = usuario.getEmail();
         usuario.setNombre(dto.getNombre());
         usuario.setEmail(dto.getEmail());
         usuario.setRol(dto.getRol());
         
         Usuario usuarioActualizado = usuarioRepository.save(usuario);
+        // El rol y el email del principal en caché ya no son válidos
+        invalidarPrincipal(emailAnterior);
+        invalidarPrincipal(usuarioActualizado.getEmail());
+        // Mantener al día la copia del nombre embebida en sus valoraciones
+        valoracionRepository.actualizarNombreUsuario(id, usuarioActualizado.getNombre());
         return mapToDTO(usuarioActualizado);
     }
 
@@ -130,10 +196,27 @@ public class UsuarioService implements UserDetailsService {
      * @param id ID del usuario
      */
     public void eliminar(String id) {
-        if (!usuarioRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Usuario", "id", id);
-        }
+        Usuario usuario = usuarioRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", id));
         usuarioRepository.deleteById(id);
+        invalidarPrincipal(usuario.getEmail());
+    }
+
+    /**
+     * Descarta el usuario autenticado guardado en caché para que la próxima petición lo relea
+     * @param email email del usuario
+     */
+    private void invalidarPrincipal(String email) {
+        if (principales != null) {
+            principales.invalidar(email);
+        }
+    }
+
+    /**
+     * Copia del usuario sin la contraseña, para mantenerla fuera de la caché y del contexto de seguridad
+     */
+    private static Usuario sinPassword(Usuario usuario) {
+        return new Usuario(usuario.getId(), usuario.getNombre(), usuario.getEmail(), null, usuario.getRol());
     }
 
     /**
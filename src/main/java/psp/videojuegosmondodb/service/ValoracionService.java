@@ -1,19 +1,23 @@
 package psp.videojuegosmondodb.service;
 
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import psp.videojuegosmondodb.dto.PaginaDTO;
 import psp.videojuegosmondodb.dto.ValoracionDTO;
 import psp.videojuegosmondodb.exception.BadRequestException;
 import psp.videojuegosmondodb.exception.DuplicateResourceException;
 import psp.videojuegosmondodb.exception.ResourceNotFoundException;
 import psp.videojuegosmondodb.model.Usuario;
+import psp.videojuegosmondodb.model.UsuarioResumen;
 import psp.videojuegosmondodb.model.Valoracion;
-import psp.videojuegosmondodb.model.Videojuego;
-import psp.videojuegosmondodb.repository.UsuarioRepository;
+import psp.videojuegosmondodb.model.VideojuegoResumen;
+import psp.videojuegosmondodb.repository.OrdenValoraciones;
 import psp.videojuegosmondodb.repository.ValoracionRepository;
 import psp.videojuegosmondodb.repository.VideojuegoRepository;
+import psp.videojuegosmondodb.util.CursorUtil;
+import psp.videojuegosmondodb.util.Paginacion;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Servicio para operaciones con valoraciones
@@ -22,70 +26,144 @@ import java.util.stream.Collectors;
 public class ValoracionService {
 
     private final ValoracionRepository valoracionRepository;
-    private final UsuarioRepository usuarioRepository;
     private final VideojuegoRepository videojuegoRepository;
+    private final IndiceAutocompletado indiceAutocompletado;
+    private final Paginacion paginacion;
 
     public ValoracionService(ValoracionRepository valoracionRepository,
-                            UsuarioRepository usuarioRepository,
-                            VideojuegoRepository videojuegoRepository) {
+                            VideojuegoRepository videojuegoRepository,
+                            IndiceAutocompletado indiceAutocompletado,
+                            Paginacion paginacion) {
         this.valoracionRepository = valoracionRepository;
-        this.usuarioRepository = usuarioRepository;
         this.videojuegoRepository = videojuegoRepository;
+        this.indiceAutocompletado = indiceAutocompletado;
+        this.paginacion = paginacion;
     }
 
     /**
-     * Obtiene todas las valoraciones de un videojuego
+     * Obtiene una página de valoraciones de un videojuego
      * @param videojuegoId ID del videojuego
-     * @return lista de valoraciones
+     * @param orden "recientes" (por defecto) o "puntuacion"
+     * @param after cursor de la página anterior (opcional)
+     * @param limit tamaño de página (opcional)
+     * @return página de valoraciones
      */
-    public List<ValoracionDTO> obtenerPorVideojuego(String videojuegoId) {
-        Videojuego videojuego = videojuegoRepository.findById(videojuegoId)
-                .orElseThrow(() -> new ResourceNotFoundException("Videojuego", "id", videojuegoId));
-        
-        return valoracionRepository.findByVideojuego(videojuego).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public PaginaDTO<ValoracionDTO> obtenerPorVideojuego(String videojuegoId, String orden,
+                                                         String after, Integer limit) {
+        OrdenValoraciones ordenacion = OrdenValoraciones.desde(orden);
+        int limite = paginacion.limite(limit);
+        // Solo para responder 404 si el videojuego no existe; el título viene en cada valoración
+        tituloVideojuego(videojuegoId);
+
+        CursorValoraciones cursor = decodificarCursor(after, ordenacion);
+
+        // Se pide un elemento más para saber si existe una página siguiente
+        List<Valoracion> valoraciones = valoracionRepository.buscarPaginaPorVideojuego(
+                videojuegoId, ordenacion, cursor.puntuacion(), cursor.id(), limite + 1);
+        return paginacion.crearPagina(valoraciones, limite,
+                v -> ordenacion == OrdenValoraciones.PUNTUACION
+                        ? CursorUtil.codificar(String.valueOf(v.getPuntuacion()), v.getId())
+                        : CursorUtil.codificar(v.getId()),
+                this::mapToDTO);
     }
 
     /**
-     * Crea una nueva valoración
+     * Crea una nueva valoración.
+     * El usuario autenticado se usa tal cual y el videojuego se referencia por su ID con el título
+     * del índice en memoria, así que normalmente basta con el insert y el $inc de las estadísticas.
+     * El índice solo aporta el título: quien decide si el videojuego existe es el $inc, y si no
+     * encuentra el documento (borrado o índice desactualizado) se deshace el insert y se responde 404.
+     * La unicidad usuario-videojuego la garantiza el índice único de la colección
      * @param dto datos de la nueva valoración
-     * @param usuarioId ID del usuario que crea la valoración
+     * @param usuario usuario autenticado que crea la valoración
      * @return la valoración creada
      */
-    public ValoracionDTO crear(ValoracionDTO dto, String usuarioId) {
-        Usuario usuario = usuarioRepository.findById(usuarioId)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", usuarioId));
-        
-        Videojuego videojuego = videojuegoRepository.findById(dto.getVideojuegoId())
-                .orElseThrow(() -> new ResourceNotFoundException("Videojuego", "id", dto.getVideojuegoId()));
-        
-        // Verificar si el usuario ya ha valorado este videojuego
-        if (valoracionRepository.existsByUsuarioAndVideojuego(usuario, videojuego)) {
-            throw new DuplicateResourceException("Ya has valorado este videojuego");
-        }
-        
+    public ValoracionDTO crear(ValoracionDTO dto, Usuario usuario) {
         // Validar puntuación
         if (dto.getPuntuacion() < 1 || dto.getPuntuacion() > 10) {
             throw new BadRequestException("La puntuación debe estar entre 1 y 10");
         }
-        
+
+        String videojuegoId = dto.getVideojuegoId();
+        String titulo = tituloVideojuego(videojuegoId);
+
         Valoracion valoracion = new Valoracion();
-        valoracion.setUsuario(usuario);
-        valoracion.setVideojuego(videojuego);
+        valoracion.setUsuario(new UsuarioResumen(usuario.getId(), usuario.getNombre()));
+        valoracion.setVideojuego(new VideojuegoResumen(videojuegoId, titulo));
         valoracion.setPuntuacion(dto.getPuntuacion());
         valoracion.setComentario(dto.getComentario());
-        
-        Valoracion valoracionGuardada = valoracionRepository.save(valoracion);
+
+        Valoracion valoracionGuardada;
+        try {
+            valoracionGuardada = valoracionRepository.insert(valoracion);
+        } catch (DuplicateKeyException e) {
+            // Índice único { usuario.id: 1, videojuego.id: 1 }
+            throw new DuplicateResourceException("Ya has valorado este videojuego");
+        }
+        if (!videojuegoRepository.registrarValoracion(videojuegoId, valoracionGuardada.getPuntuacion())) {
+            valoracionRepository.deleteById(valoracionGuardada.getId());
+            throw new ResourceNotFoundException("Videojuego", "id", videojuegoId);
+        }
         return mapToDTO(valoracionGuardada);
     }
 
+    /**
+     * Convierte las referencias DBRef de las valoraciones existentes en copias embebidas
+     * y crea los índices sobre usuario.id y videojuego.id
+     * @return número de valoraciones convertidas
+     */
+    public long migrarReferencias() {
+        try {
+            return valoracionRepository.migrarReferencias();
+        } catch (DuplicateKeyException e) {
+            // El índice antiguo no impedía valorar dos veces el mismo videojuego
+            throw new DuplicateResourceException(
+                    "Hay usuarios con varias valoraciones del mismo videojuego; elimine las sobrantes y repita la migración");
+        }
+    }
+
+    /**
+     * Obtiene el título de un videojuego del índice en memoria o, si no lo conoce, de la base de datos
+     * @param videojuegoId ID del videojuego
+     * @return el título
+     */
+    private String tituloVideojuego(String videojuegoId) {
+        return indiceAutocompletado.titulo(videojuegoId)
+                .or(() -> videojuegoRepository.buscarTitulo(videojuegoId))
+                .orElseThrow(() -> new ResourceNotFoundException("Videojuego", "id", videojuegoId));
+    }
+
+    /**
+     * Decodifica el cursor de los listados de valoraciones según la ordenación
+     * @param after cursor recibido (opcional)
+     * @param ordenacion ordenación del listado
+     * @return puntuación e ID del último elemento de la página anterior, nulos en la primera página
+     */
+    static CursorValoraciones decodificarCursor(String after, OrdenValoraciones ordenacion) {
+        if (after == null || after.isEmpty()) {
+            return new CursorValoraciones(null, null);
+        }
+        if (ordenacion == OrdenValoraciones.PUNTUACION) {
+            String[] cursor = CursorUtil.decodificar(after, 2);
+            return new CursorValoraciones(parsearPuntuacion(cursor[0]), cursor[1]);
+        }
+        return new CursorValoraciones(null, CursorUtil.decodificar(after, 1)[0]);
+    }
+
+    private static Integer parsearPuntuacion(String valor) {
+        try {
+            return Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Cursor de paginación no válido");
+        }
+    }
+
     /**
      * Convierte una entidad Valoracion a DTO
      * @param valoracion entidad Valoracion
      * @return DTO de Valoracion
      */
-    private ValoracionDTO mapToDTO(Valoracion valoracion) {
+    ValoracionDTO mapToDTO(Valoracion valoracion) {
         ValoracionDTO dto = new ValoracionDTO();
         dto.setId(valoracion.getId());
         
@@ -104,4 +182,12 @@ public class ValoracionService {
         
         return dto;
     }
+
+    /**
+     * Clave de ordenación del último elemento de la página anterior
+     * @param puntuacion puntuación (solo en la ordenación por puntuación)
+     * @param id ID de la valoración
+     */
+    record CursorValoraciones(Integer puntuacion, String id) {
+    }
 }
\ No newline at end of file
@@ -1,16 +1,40 @@
 package psp.videojuegosmondodb.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import psp.videojuegosmondodb.dto.ConteoFacetaDTO;
+import psp.videojuegosmondodb.dto.FacetasDTO;
+import psp.videojuegosmondodb.dto.PaginaDTO;
+import psp.videojuegosmondodb.dto.SugerenciaDTO;
 import psp.videojuegosmondodb.dto.VideojuegoDTO;
+import psp.videojuegosmondodb.exception.BadRequestException;
 import psp.videojuegosmondodb.exception.ResourceNotFoundException;
 import psp.videojuegosmondodb.model.Desarrollador;
+import psp.videojuegosmondodb.model.DesarrolladorResumen;
+import psp.videojuegosmondodb.model.EstadisticasValoracion;
 import psp.videojuegosmondodb.model.Genero;
+import psp.videojuegosmondodb.model.GeneroResumen;
 import psp.videojuegosmondodb.model.Videojuego;
-import psp.videojuegosmondodb.repository.DesarrolladorRepository;
-import psp.videojuegosmondodb.repository.GeneroRepository;
+import psp.videojuegosmondodb.repository.ConteosFacetas;
+import psp.videojuegosmondodb.repository.FacetasVideojuegos;
+import psp.videojuegosmondodb.repository.FiltroVideojuegos;
+import psp.videojuegosmondodb.repository.ReferenciaCache;
+import psp.videojuegosmondodb.repository.ValoracionRepository;
 import psp.videojuegosmondodb.repository.VideojuegoRepository;
+import psp.videojuegosmondodb.util.CacheAcotada;
+import psp.videojuegosmondodb.util.CacheAcotadaMetricas;
+import psp.videojuegosmondodb.util.CursorUtil;
+import psp.videojuegosmondodb.util.Paginacion;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -19,26 +43,48 @@ import java.util.stream.Collectors;
 @Service
 public class VideojuegoService {
 
+    private static final int LIMITE_SUGERENCIAS_POR_DEFECTO = 10;
+
     private final VideojuegoRepository videojuegoRepository;
-    private final GeneroRepository generoRepository;
-    private final DesarrolladorRepository desarrolladorRepository;
+    private final ValoracionRepository valoracionRepository;
+    private final ReferenciaCache referenciaCache;
+    private final IndiceTitulos indiceTitulos;
+    private final IndiceAutocompletado indiceAutocompletado;
+    private final Paginacion paginacion;
+    // Conteos de facetas por clave de filtro; null si la caché está desactivada
+    private final CacheAcotada<Map<String, String>, ConteosFacetas> conteosFacetas;
 
     public VideojuegoService(VideojuegoRepository videojuegoRepository,
-                             GeneroRepository generoRepository,
-                             DesarrolladorRepository desarrolladorRepository) {
+                             ValoracionRepository valoracionRepository,
+                             ReferenciaCache referenciaCache,
+                             IndiceTitulos indiceTitulos,
+                             IndiceAutocompletado indiceAutocompletado,
+                             Paginacion paginacion,
+                             MeterRegistry meterRegistry,
+                             @Value("${facetas.cache.ttl-segundos:30}") long ttlFacetasSegundos,
+                             @Value("${facetas.cache.tamano-maximo:500}") int tamanoMaximoFacetas) {
         this.videojuegoRepository = videojuegoRepository;
-        this.generoRepository = generoRepository;
-        this.desarrolladorRepository = desarrolladorRepository;
+        this.valoracionRepository = valoracionRepository;
+        this.referenciaCache = referenciaCache;
+        this.indiceTitulos = indiceTitulos;
+        this.indiceAutocompletado = indiceAutocompletado;
+        this.paginacion = paginacion;
+        if (ttlFacetasSegundos > 0) {
+            this.conteosFacetas = new CacheAcotada<>(tamanoMaximoFacetas, Duration.ofSeconds(ttlFacetasSegundos));
+            new CacheAcotadaMetricas(conteosFacetas, "videojuegos.facetas").bindTo(meterRegistry);
+        } else {
+            this.conteosFacetas = null;
+        }
     }
 
     /**
-     * Obtiene todos los videojuegos
-     * @return lista de videojuegos
+     * Obtiene una página de videojuegos ordenados por título
+     * @param after cursor de la página anterior (opcional)
+     * @param limit tamaño de página (opcional)
+     * @return página de videojuegos
      */
-    public List<VideojuegoDTO> obtenerTodos() {
-        return videojuegoRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public PaginaDTO<VideojuegoDTO> obtenerTodos(String after, Integer limit) {
+        return buscarPagina(new FiltroVideojuegos(), after, limit);
     }
 
     /**
@@ -47,78 +93,130 @@ public class VideojuegoService {
      * @return el videojuego
      */
     public VideojuegoDTO obtenerPorId(String id) {
-        Videojuego videojuego = videojuegoRepository.findById(id)
+        Videojuego videojuego = videojuegoRepository.buscarPorId(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Videojuego", "id", id));
         return mapToDTO(videojuego);
     }
 
     /**
-     * Busca videojuegos por título
+     * Busca videojuegos por título, ordenados por relevancia.
+     * Usa el índice de trigramas en memoria; mientras no esté cargado consulta MongoDB con una
+     * expresión regular que encuentra los mismos títulos (salvo tildes) ordenados solo por título
      * @param titulo texto a buscar en el título
-     * @return lista de videojuegos que coinciden
+     * @param after cursor de la página anterior (opcional)
+     * @param limit tamaño de página (opcional)
+     * @return página de videojuegos que coinciden
      */
-    public List<VideojuegoDTO> buscarPorTitulo(String titulo) {
-        return videojuegoRepository.findByTituloContainingIgnoreCase(titulo).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public PaginaDTO<VideojuegoDTO> buscarPorTitulo(String titulo, String after, Integer limit) {
+        if (!indiceTitulos.estaListo()) {
+            return buscarPagina(new FiltroVideojuegos().tituloContiene(titulo), after, limit);
+        }
+
+        int limite = paginacion.limite(limit);
+        String[] cursor = decodificarCursor(after);
+        List<String> ids = indiceTitulos.buscar(titulo, cursor[0], cursor[1], limite + 1);
+        return paginacion.crearPagina(videojuegoRepository.buscarPorIds(ids), limite,
+                v -> CursorUtil.codificar(v.getTitulo(), v.getId()),
+                this::mapToDTO);
     }
 
     /**
-     * Filtra videojuegos por género, plataforma y/o desarrollador
-     * Acepta tanto IDs como nombres para género y desarrollador
-     * @param generoParam nombre del género (opcional)
-     * @param plataforma plataforma (opcional)
-     * @param desarrolladorParam nombre del desarrollador (opcional)
-     * @return lista de videojuegos filtrados
+     * Sugiere títulos de videojuegos que empiezan por el prefijo, de más a menos valorados
+     * @param prefijo comienzo del título
+     * @param limit número máximo de sugerencias (opcional)
+     * @return lista de sugerencias
      */
-    public List<VideojuegoDTO> filtrar(String generoParam, String plataforma, String desarrolladorParam) {
-        Genero genero = null;
-        Desarrollador desarrollador = null;
-
-        // Buscar género por nombre si se proporciona
-        if (generoParam != null && !generoParam.isEmpty()) {
-            genero = generoRepository.findByNombre(generoParam)
-                    .orElseThrow(() -> new ResourceNotFoundException("Género", "nombre", generoParam));
+    public List<SugerenciaDTO> autocompletar(String prefijo, Integer limit) {
+        int limite = limit == null ? LIMITE_SUGERENCIAS_POR_DEFECTO : limit;
+        if (limite < 1) {
+            throw new BadRequestException("El límite debe ser mayor que 0");
         }
+        return indiceAutocompletado.sugerir(prefijo, Math.min(limite, IndiceAutocompletado.LIMITE_MAXIMO));
+    }
 
-        // Buscar desarrollador por nombre si se proporciona
-        if (desarrolladorParam != null && !desarrolladorParam.isEmpty()) {
-            desarrollador = desarrolladorRepository.findByNombreEstudio(desarrolladorParam)
-                    .orElseThrow(() -> new ResourceNotFoundException("Desarrollador", "nombre", desarrolladorParam));
-        }
+    /**
+     * Filtra videojuegos por cualquier combinación de género, plataforma, desarrollador,
+     * calificación PEGI y rango de fecha de lanzamiento.
+     * Acepta tanto IDs como nombres para género y desarrollador; los IDs no requieren
+     * ninguna consulta adicional antes de la búsqueda
+     * @param generoParam ID o nombre del género (opcional)
+     * @param plataforma plataforma (opcional)
+     * @param desarrolladorParam ID o nombre del desarrollador (opcional)
+     * @param calificacionPEGI calificación PEGI (opcional)
+     * @param desde fecha de lanzamiento mínima (opcional)
+     * @param hasta fecha de lanzamiento máxima (opcional)
+     * @param after cursor de la página anterior (opcional)
+     * @param limit tamaño de página (opcional)
+     * @return página de videojuegos filtrados
+     */
+    public PaginaDTO<VideojuegoDTO> filtrar(String generoParam, String plataforma, String desarrolladorParam,
+                                            String calificacionPEGI, LocalDate desde, LocalDate hasta,
+                                            String after, Integer limit) {
+        FiltroVideojuegos filtro = crearFiltro(generoParam, plataforma, desarrolladorParam,
+                calificacionPEGI, desde, hasta);
+        return buscarPagina(filtro, after, limit);
+    }
 
-        // Aplicar filtros según los parámetros disponibles
-        List<Videojuego> videojuegos;
+    /**
+     * Filtra videojuegos como {@link #filtrar} y además cuenta los que cumplen el filtro por
+     * género, plataforma, desarrollador y calificación PEGI con una sola agregación.
+     * Los conteos se guardan un tiempo corto por filtro, de modo que al pasar de página
+     * solo se consulta la página
+     * @param generoParam ID o nombre del género (opcional)
+     * @param plataforma plataforma (opcional)
+     * @param desarrolladorParam ID o nombre del desarrollador (opcional)
+     * @param calificacionPEGI calificación PEGI (opcional)
+     * @param desde fecha de lanzamiento mínima (opcional)
+     * @param hasta fecha de lanzamiento máxima (opcional)
+     * @param after cursor de la página anterior (opcional)
+     * @param limit tamaño de página (opcional)
+     * @return página de videojuegos filtrados y conteos por faceta
+     */
+    public FacetasDTO facetas(String generoParam, String plataforma, String desarrolladorParam,
+                              String calificacionPEGI, LocalDate desde, LocalDate hasta,
+                              String after, Integer limit) {
+        FiltroVideojuegos filtro = crearFiltro(generoParam, plataforma, desarrolladorParam,
+                calificacionPEGI, desde, hasta);
+        int limite = paginacion.limite(limit);
+        String[] cursor = decodificarCursor(after);
 
-        if (genero != null && plataforma != null && desarrollador != null) {
-            // Todos los filtros
-            videojuegos = videojuegoRepository.findByGeneroAndPlataformaAndDesarrollador(genero, plataforma, desarrollador);
-        } else if (genero != null && plataforma != null) {
-            // Género y plataforma
-            videojuegos = videojuegoRepository.findByGeneroAndPlataforma(genero, plataforma);
-        } else if (genero != null && desarrollador != null) {
-            // Género y desarrollador
-            videojuegos = videojuegoRepository.findByGeneroAndDesarrollador(genero, desarrollador);
-        } else if (plataforma != null && desarrollador != null) {
-            // Plataforma y desarrollador
-            videojuegos = videojuegoRepository.findByPlataformaAndDesarrollador(plataforma, desarrollador);
-        } else if (genero != null) {
-            // Solo género
-            videojuegos = videojuegoRepository.findByGenero(genero);
-        } else if (plataforma != null) {
-            // Solo plataforma
-            videojuegos = videojuegoRepository.findByPlataforma(plataforma);
-        } else if (desarrollador != null) {
-            // Solo desarrollador
-            videojuegos = videojuegoRepository.findByDesarrollador(desarrollador);
+        Map<String, String> clave = filtro.clave();
+        long generacionFacetas = conteosFacetas != null ? conteosFacetas.generacion() : 0;
+        ConteosFacetas conteos = conteosFacetas != null ? conteosFacetas.obtener(clave) : null;
+        List<Videojuego> videojuegos;
+        if (conteos != null) {
+            videojuegos = videojuegoRepository.buscarPagina(filtro, cursor[0], cursor[1], limite + 1);
         } else {
-            // Sin filtros, devolver todos
-            videojuegos = videojuegoRepository.findAll();
+            FacetasVideojuegos resultado = videojuegoRepository.buscarPaginaConFacetas(
+                    filtro, cursor[0], cursor[1], limite + 1);
+            videojuegos = resultado.pagina();
+            conteos = resultado.conteos();
+            if (conteosFacetas != null) {
+                conteosFacetas.guardarSiVigente(clave, conteos, generacionFacetas);
+            }
         }
 
-        return videojuegos.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        PaginaDTO<VideojuegoDTO> pagina = paginacion.crearPagina(videojuegos, limite,
+                v -> CursorUtil.codificar(v.getTitulo(), v.getId()),
+                this::mapToDTO);
+        Map<String, Genero> generos = referenciaCache.generos(conteos.generos().keySet());
+        Map<String, Desarrollador> desarrolladores = referenciaCache.desarrolladores(conteos.desarrolladores().keySet());
+        return new FacetasDTO(
+                pagina.getContenido(),
+                pagina.getSiguienteCursor(),
+                mapConteos(conteos.generos(), id -> generos.containsKey(id) ? generos.get(id).getNombre() : null),
+                mapConteos(conteos.plataformas(), Function.identity()),
+                mapConteos(conteos.desarrolladores(),
+                        id -> desarrolladores.containsKey(id) ? desarrolladores.get(id).getNombreEstudio() : null),
+                mapConteos(conteos.calificacionesPEGI(), Function.identity()));
+    }
+
+    /**
+     * Recorre el catálogo completo de videojuegos sin cargarlo en memoria
+     * @param consumidor función que recibe cada videojuego
+     */
+    public void exportar(Consumer<VideojuegoDTO> consumidor) {
+        videojuegoRepository.recorrerCatalogo(videojuego -> consumidor.accept(mapToDTO(videojuego)));
     }
 
     /**
@@ -129,6 +227,9 @@ public class VideojuegoService {
     public VideojuegoDTO crear(VideojuegoDTO dto) {
         Videojuego videojuego = mapToEntity(dto);
         Videojuego videojuegoGuardado = videojuegoRepository.save(videojuego);
+        indiceTitulos.agregar(videojuegoGuardado.getId(), videojuegoGuardado.getTitulo());
+        indiceAutocompletado.guardar(videojuegoGuardado.getId(), videojuegoGuardado.getTitulo());
+        invalidarFacetas();
         return mapToDTO(videojuegoGuardado);
     }
 
@@ -139,13 +240,16 @@ public class VideojuegoService {
      * @return el videojuego actualizado
      */
     public VideojuegoDTO actualizar(String id, VideojuegoDTO dto) {
-        if (!videojuegoRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Videojuego", "id", id);
-        }
-
         Videojuego videojuego = mapToEntity(dto);
         videojuego.setId(id);
-        Videojuego videojuegoActualizado = videojuegoRepository.save(videojuego);
+        // Solo se modifican los datos de catálogo; las estadísticas de valoración se conservan
+        Videojuego videojuegoActualizado = videojuegoRepository.actualizarDatos(videojuego)
+                .orElseThrow(() -> new ResourceNotFoundException("Videojuego", "id", id));
+        indiceTitulos.agregar(videojuegoActualizado.getId(), videojuegoActualizado.getTitulo());
+        indiceAutocompletado.guardar(videojuegoActualizado.getId(), videojuegoActualizado.getTitulo());
+        invalidarFacetas();
+        // Mantener al día la copia del título embebida en sus valoraciones
+        valoracionRepository.actualizarTituloVideojuego(id, videojuegoActualizado.getTitulo());
         return mapToDTO(videojuegoActualizado);
     }
 
@@ -158,6 +262,131 @@ public class VideojuegoService {
             throw new ResourceNotFoundException("Videojuego", "id", id);
         }
         videojuegoRepository.deleteById(id);
+        indiceTitulos.eliminar(id);
+        indiceAutocompletado.eliminar(id);
+        invalidarFacetas();
+    }
+
+    /**
+     * Convierte las referencias DBRef de género y desarrollador que queden en el catálogo en copias embebidas
+     * @return número de videojuegos migrados
+     */
+    public long migrarReferencias() {
+        long migrados = videojuegoRepository.migrarReferencias();
+        if (migrados > 0) {
+            // Los conteos por género y desarrollador agrupan por el ID embebido
+            invalidarFacetas();
+        }
+        return migrados;
+    }
+
+    /**
+     * Actualiza los índices en memoria y descarta los conteos de facetas tras una importación masiva
+     * @param videojuegos videojuegos insertados
+     */
+    void registrarImportados(List<Videojuego> videojuegos) {
+        if (videojuegos.isEmpty()) {
+            return;
+        }
+        for (Videojuego videojuego : videojuegos) {
+            indiceTitulos.agregar(videojuego.getId(), videojuego.getTitulo());
+            indiceAutocompletado.guardar(videojuego.getId(), videojuego.getTitulo());
+        }
+        invalidarFacetas();
+    }
+
+    /**
+     * Construye el filtro de videojuegos resolviendo género y desarrollador por ID o nombre
+     */
+    FiltroVideojuegos crearFiltro(String generoParam, String plataforma, String desarrolladorParam,
+                                          String calificacionPEGI, LocalDate desde, LocalDate hasta) {
+        return new FiltroVideojuegos()
+                .genero(resolverGeneroId(generoParam))
+                .plataforma(plataforma)
+                .desarrollador(resolverDesarrolladorId(desarrolladorParam))
+                .calificacionPEGI(calificacionPEGI)
+                .lanzadoEntre(desde, hasta);
+    }
+
+    /**
+     * Convierte los conteos de una faceta en DTOs ordenados de mayor a menor número de videojuegos
+     * @param conteos número de videojuegos por valor
+     * @param nombre obtiene el nombre a mostrar de cada valor
+     * @return lista de conteos
+     */
+    private static List<ConteoFacetaDTO> mapConteos(Map<String, Long> conteos, Function<String, String> nombre) {
+        return conteos.entrySet().stream()
+                .map(e -> new ConteoFacetaDTO(e.getKey(), nombre.apply(e.getKey()), e.getValue()))
+                .sorted(Comparator.comparingLong(ConteoFacetaDTO::getTotal).reversed()
+                        .thenComparing(ConteoFacetaDTO::getValor))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Descarta los conteos de facetas guardados tras un cambio en el catálogo
+     */
+    private void invalidarFacetas() {
+        if (conteosFacetas != null) {
+            conteosFacetas.invalidarTodo();
+        }
+    }
+
+    /**
+     * Obtiene una página de videojuegos que cumplen el filtro, continuando tras el cursor
+     * @param filtro filtros a aplicar
+     * @param after cursor de la página anterior (opcional)
+     * @param limit tamaño de página (opcional)
+     * @return página de videojuegos
+     */
+    private PaginaDTO<VideojuegoDTO> buscarPagina(FiltroVideojuegos filtro, String after, Integer limit) {
+        int limite = paginacion.limite(limit);
+        String[] cursor = decodificarCursor(after);
+
+        // Se pide un elemento más para saber si existe una página siguiente
+        List<Videojuego> videojuegos = videojuegoRepository.buscarPagina(filtro, cursor[0], cursor[1], limite + 1);
+        return paginacion.crearPagina(videojuegos, limite,
+                v -> CursorUtil.codificar(v.getTitulo(), v.getId()),
+                this::mapToDTO);
+    }
+
+    /**
+     * Decodifica el cursor (titulo, id) de los listados de videojuegos
+     * @param after cursor recibido (opcional)
+     * @return título e ID del último elemento de la página anterior, o nulos en la primera página
+     */
+    String[] decodificarCursor(String after) {
+        if (after == null || after.isEmpty()) {
+            return new String[2];
+        }
+        return CursorUtil.decodificar(after, 2);
+    }
+
+    /**
+     * Obtiene el ID de un género a partir de su ID o de su nombre
+     * @param generoParam ID o nombre del género (opcional)
+     * @return ID del género, o null si no se indicó
+     */
+    private String resolverGeneroId(String generoParam) {
+        if (generoParam == null || generoParam.isEmpty() || ObjectId.isValid(generoParam)) {
+            return generoParam;
+        }
+        return referenciaCache.generoPorNombre(generoParam)
+                .map(Genero::getId)
+                .orElseThrow(() -> new ResourceNotFoundException("Género", "nombre", generoParam));
+    }
+
+    /**
+     * Obtiene el ID de un desarrollador a partir de su ID o de su nombre de estudio
+     * @param desarrolladorParam ID o nombre del desarrollador (opcional)
+     * @return ID del desarrollador, o null si no se indicó
+     */
+    private String resolverDesarrolladorId(String desarrolladorParam) {
+        if (desarrolladorParam == null || desarrolladorParam.isEmpty() || ObjectId.isValid(desarrolladorParam)) {
+            return desarrolladorParam;
+        }
+        return referenciaCache.desarrolladorPorNombre(desarrolladorParam)
+                .map(Desarrollador::getId)
+                .orElseThrow(() -> new ResourceNotFoundException("Desarrollador", "nombre", desarrolladorParam));
     }
 
     /**
@@ -165,7 +394,7 @@ public class VideojuegoService {
      * @param videojuego entidad Videojuego
      * @return DTO de Videojuego
      */
-    private VideojuegoDTO mapToDTO(Videojuego videojuego) {
+    VideojuegoDTO mapToDTO(Videojuego videojuego) {
         VideojuegoDTO dto = new VideojuegoDTO();
         dto.setId(videojuego.getId());
         dto.setTitulo(videojuego.getTitulo());
@@ -184,6 +413,14 @@ public class VideojuegoService {
             dto.setDesarrolladorNombre(videojuego.getDesarrollador().getNombreEstudio());
         }
 
+        EstadisticasValoracion estadisticas = videojuego.getEstadisticas();
+        if (estadisticas != null && estadisticas.getTotal() > 0) {
+            double media = (double) estadisticas.getSuma() / estadisticas.getTotal();
+            dto.setPuntuacionMedia(Math.round(media * 100) / 100.0);
+            dto.setTotalValoraciones(estadisticas.getTotal());
+            dto.setDistribucion(estadisticas.getHistograma());
+        }
+
         return dto;
     }
 
@@ -205,16 +442,16 @@ public class VideojuegoService {
 
         // Obtener género por ID
         if (dto.getGeneroId() != null && !dto.getGeneroId().isEmpty()) {
-            Genero genero = generoRepository.findById(dto.getGeneroId())
+            Genero genero = referenciaCache.genero(dto.getGeneroId())
                     .orElseThrow(() -> new ResourceNotFoundException("Género", "id", dto.getGeneroId()));
-            videojuego.setGenero(genero);
+            videojuego.setGenero(new GeneroResumen(genero.getId(), genero.getNombre()));
         }
 
         // Obtener desarrollador por ID
         if (dto.getDesarrolladorId() != null && !dto.getDesarrolladorId().isEmpty()) {
-            Desarrollador desarrollador = desarrolladorRepository.findById(dto.getDesarrolladorId())
+            Desarrollador desarrollador = referenciaCache.desarrollador(dto.getDesarrolladorId())
                     .orElseThrow(() -> new ResourceNotFoundException("Desarrollador", "id", dto.getDesarrolladorId()));
-            videojuego.setDesarrollador(desarrollador);
+            videojuego.setDesarrollador(new DesarrolladorResumen(desarrollador.getId(), desarrollador.getNombreEstudio()));
         }
 
         return videojuego;
@@ -0,0 +1,229 @@
+package psp.videojuegosmondodb.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria de tamaño acotado con expulsión LRU y caducidad opcional por entrada.
+ * Lleva la cuenta de aciertos, fallos, inserciones y expulsiones para exponerlos como métricas.
+ * Cada invalidación avanza un contador de generación: un valor cargado antes de una invalidación
+ * se descarta al guardarlo con {@link #guardarSiVigente}, para no volver a meter datos obsoletos.
+ */
+public class CacheAcotada<K, V> implements EstadisticasCache {
+
+    private final int tamanoMaximo;
+    private final long ttlMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+    private long generacion;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder inserciones = new LongAdder();
+    private final LongAdder expulsiones = new LongAdder();
+
+    /**
+     * Crea una caché sin caducidad
+     * @param tamanoMaximo número máximo de entradas
+     */
+    public CacheAcotada(int tamanoMaximo) {
+        this(tamanoMaximo, null);
+    }
+
+    /**
+     * Crea una caché cuyas entradas caducan tras el tiempo indicado
+     * @param tamanoMaximo número máximo de entradas
+     * @param ttl tiempo de vida de cada entrada (null o cero para no caducar)
+     */
+    public CacheAcotada(int tamanoMaximo, Duration ttl) {
+        this.tamanoMaximo = tamanoMaximo;
+        this.ttlMillis = ttl == null || ttl.isZero() ? 0 : ttl.toMillis();
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> eldest) {
+                if (size() > CacheAcotada.this.tamanoMaximo) {
+                    expulsiones.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Obtiene un valor de la caché
+     * @param clave clave buscada
+     * @return el valor, o null si no está o ha caducado
+     */
+    public V obtener(K clave) {
+        long ahora = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Entrada<V> entrada = entradas.get(clave);
+            if (entrada != null && entrada.expiraEn() <= ahora) {
+                entradas.remove(clave);
+                expulsiones.increment();
+                entrada = null;
+            }
+            if (entrada == null) {
+                fallos.increment();
+                return null;
+            }
+            aciertos.increment();
+            return entrada.valor();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtiene un valor de la caché y, si no está, lo carga y lo guarda
+     * @param clave clave buscada
+     * @param cargador función que obtiene el valor en caso de fallo (puede devolver null)
+     * @return el valor, o null si el cargador no lo encontró
+     */
+    public V obtener(K clave, Function<K, V> cargador) {
+        long generacionCarga = generacion();
+        V valor = obtener(clave);
+        if (valor == null) {
+            // La carga se hace fuera del cerrojo para no bloquear al resto de lectores
+            valor = cargador.apply(clave);
+            if (valor != null) {
+                guardarSiVigente(clave, valor, generacionCarga);
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Generación actual de la caché, que avanza con cada invalidación.
+     * Se lee antes de cargar un valor y se pasa a {@link #guardarSiVigente} al guardarlo
+     * @return generación actual
+     */
+    public long generacion() {
+        lock.lock();
+        try {
+            return generacion;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Guarda un valor con la caducidad por defecto solo si no ha habido invalidaciones desde que
+     * se leyó la generación indicada, es decir, si el valor no puede haberse quedado obsoleto
+     * @param clave clave
+     * @param valor valor
+     * @param generacionCarga generación leída antes de cargar el valor
+     * @return true si se ha guardado
+     */
+    public boolean guardarSiVigente(K clave, V valor, long generacionCarga) {
+        lock.lock();
+        try {
+            if (generacion != generacionCarga) {
+                return false;
+            }
+            insertar(clave, valor, expiraEnPorDefecto());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Guarda un valor con la caducidad por defecto de la caché
+     * @param clave clave
+     * @param valor valor
+     */
+    public void guardar(K clave, V valor) {
+        guardar(clave, valor, expiraEnPorDefecto());
+    }
+
+    /**
+     * Guarda un valor que caduca en el instante indicado
+     * @param clave clave
+     * @param valor valor
+     * @param expiraEnMillis instante de caducidad en milisegundos desde epoch
+     */
+    public void guardar(K clave, V valor, long expiraEnMillis) {
+        lock.lock();
+        try {
+            insertar(clave, valor, expiraEnMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Elimina una entrada de la caché
+     * @param clave clave a eliminar
+     */
+    public void invalidar(K clave) {
+        lock.lock();
+        try {
+            entradas.remove(clave);
+            generacion++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Elimina todas las entradas de la caché
+     */
+    public void invalidarTodo() {
+        lock.lock();
+        try {
+            entradas.clear();
+            generacion++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int tamano() {
+        lock.lock();
+        try {
+            return entradas.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long aciertos() {
+        return aciertos.sum();
+    }
+
+    @Override
+    public long fallos() {
+        return fallos.sum();
+    }
+
+    @Override
+    public long inserciones() {
+        return inserciones.sum();
+    }
+
+    @Override
+    public long expulsiones() {
+        return expulsiones.sum();
+    }
+
+    private long expiraEnPorDefecto() {
+        return ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+    }
+
+    private void insertar(K clave, V valor, long expiraEnMillis) {
+        entradas.put(clave, new Entrada<>(valor, expiraEnMillis));
+        inserciones.increment();
+    }
+
+    private record Entrada<V>(V valor, long expiraEn) {
+    }
+}
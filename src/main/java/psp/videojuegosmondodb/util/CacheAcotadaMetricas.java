@@ -0,0 +1,60 @@
+package psp.videojuegosmondodb.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publica en Micrometer las métricas estándar de caché (cache.gets, cache.puts,
+ * cache.evictions, cache.size) de una {@link CacheAcotada} o una {@link CacheSegmentada},
+ * más la tasa de aciertos acumulada (cache.hit.ratio)
+ */
+public class CacheAcotadaMetricas extends CacheMeterBinder<EstadisticasCache> {
+
+    private final EstadisticasCache cache;
+
+    public CacheAcotadaMetricas(EstadisticasCache cache, String nombre) {
+        super(cache, nombre, Tags.empty());
+        this.cache = cache;
+    }
+
+    @Override
+    protected Long size() {
+        return (long) cache.tamano();
+    }
+
+    @Override
+    protected long hitCount() {
+        return cache.aciertos();
+    }
+
+    @Override
+    protected Long missCount() {
+        return cache.fallos();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return cache.expulsiones();
+    }
+
+    @Override
+    protected long putCount() {
+        return cache.inserciones();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.hit.ratio", cache, CacheAcotadaMetricas::tasaAciertos)
+                .tags(getTagsWithCacheName())
+                .description("Proporción de consultas a la caché que encontraron el valor")
+                .register(registry);
+    }
+
+    private static double tasaAciertos(EstadisticasCache cache) {
+        long aciertos = cache.aciertos();
+        long consultas = aciertos + cache.fallos();
+        return consultas == 0 ? 0 : (double) aciertos / consultas;
+    }
+}
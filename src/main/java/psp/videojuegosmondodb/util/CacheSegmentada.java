@@ -0,0 +1,98 @@
+package psp.videojuegosmondodb.util;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Caché acotada repartida en varios segmentos, cada uno con su propio cerrojo.
+ * Cada clave va siempre al mismo segmento, así que los hilos que consultan claves distintas
+ * rara vez compiten por el mismo cerrojo. El tamaño máximo se reparte entre los segmentos
+ * y la expulsión LRU es por segmento.
+ */
+public class CacheSegmentada<K, V> implements EstadisticasCache {
+
+    private final CacheAcotada<K, V>[] segmentos;
+
+    /**
+     * Crea una caché sin caducidad por defecto; la caducidad se indica al guardar cada entrada
+     * @param tamanoMaximo número máximo de entradas entre todos los segmentos
+     * @param numeroSegmentos número de segmentos (cerrojos independientes)
+     */
+    @SuppressWarnings("unchecked")
+    public CacheSegmentada(int tamanoMaximo, int numeroSegmentos) {
+        if (numeroSegmentos < 1) {
+            throw new IllegalArgumentException("El número de segmentos debe ser mayor que 0");
+        }
+        int tamanoSegmento = Math.max(1, (tamanoMaximo + numeroSegmentos - 1) / numeroSegmentos);
+        this.segmentos = new CacheAcotada[numeroSegmentos];
+        for (int i = 0; i < numeroSegmentos; i++) {
+            segmentos[i] = new CacheAcotada<>(tamanoSegmento);
+        }
+    }
+
+    /**
+     * Obtiene un valor de la caché
+     * @param clave clave buscada
+     * @return el valor, o null si no está o ha caducado
+     */
+    public V obtener(K clave) {
+        return segmento(clave).obtener(clave);
+    }
+
+    /**
+     * Guarda un valor que caduca en el instante indicado
+     * @param clave clave
+     * @param valor valor
+     * @param expiraEnMillis instante de caducidad en milisegundos desde epoch
+     */
+    public void guardar(K clave, V valor, long expiraEnMillis) {
+        segmento(clave).guardar(clave, valor, expiraEnMillis);
+    }
+
+    /**
+     * Elimina todas las entradas de la caché
+     */
+    public void invalidarTodo() {
+        for (CacheAcotada<K, V> segmento : segmentos) {
+            segmento.invalidarTodo();
+        }
+    }
+
+    @Override
+    public int tamano() {
+        return (int) sumar(CacheAcotada::tamano);
+    }
+
+    @Override
+    public long aciertos() {
+        return sumar(CacheAcotada::aciertos);
+    }
+
+    @Override
+    public long fallos() {
+        return sumar(CacheAcotada::fallos);
+    }
+
+    @Override
+    public long inserciones() {
+        return sumar(CacheAcotada::inserciones);
+    }
+
+    @Override
+    public long expulsiones() {
+        return sumar(CacheAcotada::expulsiones);
+    }
+
+    private CacheAcotada<K, V> segmento(K clave) {
+        // Se mezclan los bits altos para que claves con hashCode parecidos no caigan en el mismo segmento
+        int hash = clave.hashCode();
+        return segmentos[Math.floorMod(hash ^ (hash >>> 16), segmentos.length)];
+    }
+
+    private long sumar(ToLongFunction<CacheAcotada<K, V>> contador) {
+        long total = 0;
+        for (CacheAcotada<K, V> segmento : segmentos) {
+            total += contador.applyAsLong(segmento);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,46 @@
+package psp.videojuegosmondodb.util;
+
+import psp.videojuegosmondodb.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Utilidad para codificar y decodificar los cursores opacos de la paginación por clave
+ */
+public final class CursorUtil {
+
+    private static final String SEPARADOR = "\u001F";
+
+    private CursorUtil() {
+    }
+
+    /**
+     * Codifica los valores de la clave de ordenación en un cursor opaco
+     * @param partes valores de la clave de ordenación del último elemento devuelto
+     * @return cursor en Base64 apto para URL
+     */
+    public static String codificar(String... partes) {
+        String plano = String.join(SEPARADOR, partes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor generado por {@link #codificar(String...)}
+     * @param cursor cursor recibido del cliente
+     * @param partesEsperadas número de valores que debe contener
+     * @return valores de la clave de ordenación
+     */
+    public static String[] decodificar(String cursor, int partesEsperadas) {
+        try {
+            String plano = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = plano.split(SEPARADOR, -1);
+            if (partes.length != partesEsperadas) {
+                throw new BadRequestException("Cursor de paginación no válido");
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor de paginación no válido");
+        }
+    }
+}
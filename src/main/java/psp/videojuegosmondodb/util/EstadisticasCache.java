@@ -0,0 +1,17 @@
+package psp.videojuegosmondodb.util;
+
+/**
+ * Contadores de una caché en memoria que se publican como métricas con {@link CacheAcotadaMetricas}
+ */
+public interface EstadisticasCache {
+
+    int tamano();
+
+    long aciertos();
+
+    long fallos();
+
+    long inserciones();
+
+    long expulsiones();
+}
@@ -0,0 +1,83 @@
+package psp.videojuegosmondodb.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre cadenas: responde si un valor puede estar en el conjunto con unos
+ * pocos hashes y sin falsos negativos. Un positivo puede ser falso con la probabilidad
+ * indicada al crearlo, siempre que no se superen los elementos previstos.
+ * Admite añadir elementos de forma concurrente; nunca se eliminan.
+ */
+public class FiltroBloom {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIMO = 0x100000001b3L;
+
+    private final AtomicLongArray bits;
+    private final long numeroBits;
+    private final int numeroHashes;
+
+    /**
+     * @param elementosPrevistos número de elementos que se espera añadir
+     * @param probabilidadFalsoPositivo probabilidad de falso positivo deseada (entre 0 y 1)
+     */
+    public FiltroBloom(int elementosPrevistos, double probabilidadFalsoPositivo) {
+        int n = Math.max(1, elementosPrevistos);
+        // Tamaño y número de hashes óptimos: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long m = (long) Math.ceil(-n * Math.log(probabilidadFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max(1, (m + 63) / 64));
+        this.numeroBits = bits.length() * 64L;
+        this.numeroHashes = Math.max(1, (int) Math.round((double) numeroBits / n * Math.log(2)));
+    }
+
+    /**
+     * Añade un valor al filtro
+     * @param valor valor a añadir
+     */
+    public void agregar(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < numeroHashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, numeroBits);
+            long mascara = 1L << bit;
+            int palabra = (int) (bit >>> 6);
+            bits.getAndAccumulate(palabra, mascara, (actual, m) -> actual | m);
+        }
+    }
+
+    /**
+     * Comprueba si un valor puede estar en el filtro
+     * @param valor valor buscado
+     * @return false si seguro que no está; true si puede estar
+     */
+    public boolean puedeContener(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < numeroHashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, numeroBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a de 64 bits; las dos mitades se combinan para obtener los k índices (doble hash)
+     */
+    private static long hash(String valor) {
+        long hash = FNV_OFFSET;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIMO;
+        }
+        // Mezcla final para repartir los bits bajos (tipo SplitMix64)
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,11 +1,12 @@
 package psp.videojuegosmondodb.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import psp.videojuegosmondodb.model.Usuario;
 
@@ -14,116 +15,107 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 /**
- * Utilidad para generar y validar tokens JWT
+ * Utilidad para generar y validar tokens JWT.
+ * La clave de firma y el parser se crean una sola vez; ambos son inmutables y seguros entre hilos.
  */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    @Value("${jwt.expiration}")
-    private Long expiration;
-
     /**
-     * Extrae el nombre de usuario (email) del token
-     * @param token token JWT
-     * @return nombre de usuario (email)
+     * Atributo de la petición en el que el filtro JWT deja los claims ya verificados,
+     * para que los controladores los reutilicen sin volver a leer el token
      */
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    public static final String ATRIBUTO_CLAIMS = "psp.videojuegosmondodb.util.JwtUtil.claims";
 
     /**
-     * Extrae la fecha de expiración del token
-     * @param token token JWT
-     * @return fecha de expiración
+     * Claim con el tipo de token: los de acceso autentican peticiones, los de refresco
+     * solo sirven para obtener un nuevo par de tokens
      */
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public static final String CLAIM_TIPO = "tipo";
+    public static final String TIPO_ACCESO = "acceso";
+    public static final String TIPO_REFRESCO = "refresco";
+
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final long expiration;
+    private final long refreshExpiration;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long expiration,
+                   @Value("${jwt.refresh-expiration:604800000}") long refreshExpiration) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.expiration = expiration;
+        this.refreshExpiration = refreshExpiration;
     }
 
     /**
-     * Extrae un claim específico del token
+     * Verifica la firma y la caducidad del token y devuelve sus claims, en una sola pasada
      * @param token token JWT
-     * @param claimsResolver función para extraer el claim
-     * @return el claim extraído
+     * @return claims del token
+     * @throws JwtException si el token no es válido o ha caducado
      */
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public Claims validarToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
-     * Extrae todos los claims del token
-     * @param token token JWT
-     * @return todos los claims
+     * Comprueba si unos claims verificados corresponden a un token de refresco
+     * @param claims claims del token
+     * @return true si es un token de refresco
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public static boolean esRefresco(Claims claims) {
+        return TIPO_REFRESCO.equals(claims.get(CLAIM_TIPO, String.class));
     }
 
     /**
-     * Verifica si el token ha expirado
-     * @param token token JWT
-     * @return true si ha expirado, false en caso contrario
+     * Genera un token de acceso de corta duración para el usuario especificado
+     * @param usuario el usuario
+     * @return token JWT generado
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public String generateToken(Usuario usuario) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("id", usuario.getId());
+        claims.put("rol", usuario.getRol().name());
+        claims.put(CLAIM_TIPO, TIPO_ACCESO);
+        return createToken(claims, usuario.getEmail(), expiration);
     }
 
     /**
-     * Genera un token para el usuario especificado
+     * Genera un token de refresco para el usuario especificado. No autentica peticiones:
+     * solo se canjea una vez por un nuevo par de tokens en /auth/refresh
      * @param usuario el usuario
      * @return token JWT generado
      */
-    public String generateToken(Usuario usuario) {
+    public String generarRefresco(Usuario usuario) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("id", usuario.getId());
-        claims.put("rol", usuario.getRol().name());
-        return createToken(claims, usuario.getEmail());
+        claims.put(CLAIM_TIPO, TIPO_REFRESCO);
+        return createToken(claims, usuario.getEmail(), refreshExpiration);
     }
 
     /**
-     * Crea un token con los claims y el sujeto especificados
+     * Crea un token con los claims y el sujeto especificados y un identificador (jti) único
+     * con el que poder revocarlo
      * @param claims los claims a incluir
      * @param subject el sujeto (email del usuario)
+     * @param duracion validez del token en milisegundos
      * @return token JWT generado
      */
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, long duracion) {
+        long ahora = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(ahora))
+                .setExpiration(new Date(ahora + duracion))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-
-    /**
-     * Valida si un token es válido para el usuario especificado
-     * @param token token JWT
-     * @param userDetails detalles del usuario
-     * @return true si es válido, false en caso contrario
-     */
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    /**
-     * Obtiene la clave para firmar los tokens
-     * @return clave de firma
-     */
-    private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package psp.videojuegosmondodb.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cubos de fichas por clave, sin cerrojos.
+ * Cada cubo se guarda como un único instante teórico de llegada (algoritmo GCRA, equivalente
+ * a un cubo de fichas): admitir una petición es adelantarlo un intervalo con compareAndSet.
+ * Un cubo cuyo instante ya ha pasado está lleno y es indistinguible de uno nuevo, así que
+ * {@link #purgar()} puede eliminarlo sin perder información. El número de claves está acotado:
+ * al alcanzar el máximo, una clave nueva provoca una purga (como mucho una por segundo) y, si aun
+ * así no hay sitio, se rechaza solo esa clave; los clientes que ya tienen cubo no se ven afectados.
+ */
+public class LimitadorTasa {
+
+    private static final long PAUSA_PURGA_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int tamanoMaximo;
+    private final ConcurrentHashMap<String, AtomicLong> cubos = new ConcurrentHashMap<>();
+    private final LongAdder rechazos = new LongAdder();
+    private final LongAdder desbordamientos = new LongAdder();
+    private final AtomicLong ultimaPurga = new AtomicLong(System.nanoTime() - PAUSA_PURGA_NANOS);
+
+    /**
+     * @param tamanoMaximo número máximo de claves con cubo propio
+     */
+    public LimitadorTasa(int tamanoMaximo) {
+        this.tamanoMaximo = tamanoMaximo;
+    }
+
+    /**
+     * Intenta consumir una ficha del cubo de la clave
+     * @param clave clave del cubo (ruta y cliente)
+     * @param capacidad fichas del cubo: peticiones seguidas admitidas con el cubo lleno
+     * @param intervaloNanos tiempo en recuperar una ficha
+     * @return 0 si la petición se admite, o nanosegundos hasta que habrá una ficha disponible
+     *         (o hasta reintentar, si la clave es nueva y no cabe)
+     */
+    public long intentar(String clave, int capacidad, long intervaloNanos) {
+        AtomicLong llegada = cubo(clave);
+        if (llegada == null) {
+            rechazos.increment();
+            return intervaloNanos;
+        }
+        long rafaga = capacidad * intervaloNanos;
+        while (true) {
+            long ahora = System.nanoTime();
+            long actual = llegada.get();
+            long siguiente = Math.max(actual, ahora) + intervaloNanos;
+            long exceso = siguiente - ahora - rafaga;
+            if (exceso > 0) {
+                rechazos.increment();
+                return exceso;
+            }
+            if (llegada.compareAndSet(actual, siguiente)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Elimina los cubos llenos, es decir, los de claves sin peticiones recientes
+     */
+    public void purgar() {
+        long ahora = System.nanoTime();
+        cubos.values().removeIf(llegada -> llegada.get() - ahora <= 0);
+    }
+
+    public int tamano() {
+        return cubos.size();
+    }
+
+    public long rechazos() {
+        return rechazos.sum();
+    }
+
+    /**
+     * Peticiones de claves nuevas rechazadas por no quedar sitio para su cubo
+     */
+    public long desbordamientos() {
+        return desbordamientos.sum();
+    }
+
+    private AtomicLong cubo(String clave) {
+        AtomicLong llegada = cubos.get(clave);
+        if (llegada != null) {
+            return llegada;
+        }
+        if (cubos.size() >= tamanoMaximo && !hacerSitio()) {
+            desbordamientos.increment();
+            return null;
+        }
+        return cubos.computeIfAbsent(clave, c -> new AtomicLong(System.nanoTime()));
+    }
+
+    /**
+     * Purga los cubos llenos si no se ha hecho en el último segundo, para no recorrer
+     * la tabla con cada clave nueva mientras siga llena de cubos activos
+     * @return true si hay sitio para una clave más
+     */
+    private boolean hacerSitio() {
+        long ahora = System.nanoTime();
+        long ultima = ultimaPurga.get();
+        if (ahora - ultima >= PAUSA_PURGA_NANOS && ultimaPurga.compareAndSet(ultima, ahora)) {
+            purgar();
+        }
+        return cubos.size() < tamanoMaximo;
+    }
+}
@@ -0,0 +1,78 @@
+package psp.videojuegosmondodb.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import psp.videojuegosmondodb.dto.PaginaDTO;
+import psp.videojuegosmondodb.exception.BadRequestException;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Utilidad para la paginación por cursor de los listados
+ */
+@Component
+public class Paginacion {
+
+    /**
+     * Cabecera en la que se devuelve el cursor de la siguiente página
+     */
+    public static final String CABECERA_SIGUIENTE_CURSOR = "X-Next-Cursor";
+
+    @Value("${paginacion.limite-por-defecto:50}")
+    private int limitePorDefecto;
+
+    @Value("${paginacion.limite-maximo:500}")
+    private int limiteMaximo;
+
+    /**
+     * Calcula el tamaño de página efectivo
+     * @param solicitado tamaño pedido por el cliente (opcional)
+     * @return tamaño de página acotado al máximo configurado
+     */
+    public int limite(Integer solicitado) {
+        if (solicitado == null) {
+            return limitePorDefecto;
+        }
+        if (solicitado < 1) {
+            throw new BadRequestException("El límite debe ser mayor que 0");
+        }
+        return Math.min(solicitado, limiteMaximo);
+    }
+
+    /**
+     * Construye una página a partir de una consulta que pidió un elemento más que el límite
+     * @param elementos resultados de la consulta (hasta limite + 1)
+     * @param limite tamaño de página
+     * @param cursor función que genera el cursor a partir del último elemento
+     * @param mapper conversión de cada elemento a DTO
+     * @return página con el cursor de la siguiente, si existe
+     */
+    public <E, D> PaginaDTO<D> crearPagina(List<E> elementos, int limite,
+                                           Function<E, String> cursor, Function<E, D> mapper) {
+        String siguienteCursor = null;
+        if (elementos.size() > limite) {
+            elementos = elementos.subList(0, limite);
+            siguienteCursor = cursor.apply(elementos.get(limite - 1));
+        }
+        List<D> contenido = elementos.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        return new PaginaDTO<>(contenido, siguienteCursor);
+    }
+
+    /**
+     * Convierte una página en la respuesta HTTP con la cabecera del siguiente cursor
+     * @param pagina página de resultados
+     * @return respuesta con el contenido de la página
+     */
+    public static <T> ResponseEntity<List<T>> respuesta(PaginaDTO<T> pagina) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (pagina.getSiguienteCursor() != null) {
+            builder.header(CABECERA_SIGUIENTE_CURSOR, pagina.getSiguienteCursor());
+        }
+        return builder.body(pagina.getContenido());
+    }
+}
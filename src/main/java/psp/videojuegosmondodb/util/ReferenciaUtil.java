@@ -0,0 +1,38 @@
+package psp.videojuegosmondodb.util;
+
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+/**
+ * Utilidad para trabajar con identificadores y referencias de MongoDB en documentos sin mapear
+ */
+public final class ReferenciaUtil {
+
+    private ReferenciaUtil() {
+    }
+
+    /**
+     * Convierte un ID de la API al tipo con el que se almacena en MongoDB
+     * @param id ID en formato texto
+     * @return ObjectId si el texto es un ObjectId válido, el propio texto en caso contrario
+     */
+    public static Object idMongo(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    /**
+     * Obtiene el ID de una referencia leída de un documento sin mapear
+     * @param referencia valor del campo (DBRef o documento con $ref/$id)
+     * @return ID en formato texto, o null si el campo no es una referencia
+     */
+    public static String idReferencia(Object referencia) {
+        Object id = null;
+        if (referencia instanceof DBRef dbRef) {
+            id = dbRef.getId();
+        } else if (referencia instanceof Document documento) {
+            id = documento.get("$id");
+        }
+        return id != null ? id.toString() : null;
+    }
+}
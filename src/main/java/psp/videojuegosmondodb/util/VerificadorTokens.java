@@ -0,0 +1,73 @@
+package psp.videojuegosmondodb.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Verifica tokens JWT recordando los que ya se han verificado.
+ * La caché se indexa por el resumen SHA-256 del token, de modo que no guarda tokens utilizables,
+ * y cada entrada caduca en el instante de expiración del propio token. Un acierto evita
+ * la verificación HMAC y la decodificación Base64/JSON del token.
+ */
+@Component
+public class VerificadorTokens {
+
+    private final JwtUtil jwtUtil;
+    // Claims verificados por resumen del token; null si la caché está desactivada
+    private final CacheSegmentada<String, Claims> verificados;
+
+    public VerificadorTokens(JwtUtil jwtUtil,
+                             MeterRegistry meterRegistry,
+                             @Value("${jwt.cache.tamano-maximo:10000}") int tamanoMaximo,
+                             @Value("${jwt.cache.segmentos:16}") int segmentos) {
+        this.jwtUtil = jwtUtil;
+        if (tamanoMaximo > 0) {
+            this.verificados = new CacheSegmentada<>(tamanoMaximo, segmentos);
+            new CacheAcotadaMetricas(verificados, "jwt.verificados").bindTo(meterRegistry);
+        } else {
+            this.verificados = null;
+        }
+    }
+
+    /**
+     * Obtiene los claims de un token, verificándolo solo si no se ha verificado antes
+     * @param token token JWT
+     * @return claims del token; no deben modificarse, pueden compartirse entre peticiones
+     * @throws JwtException si el token no es válido o ha caducado
+     */
+    public Claims verificar(String token) {
+        if (verificados == null) {
+            return jwtUtil.validarToken(token);
+        }
+        String clave = resumen(token);
+        Claims claims = verificados.obtener(clave);
+        if (claims == null) {
+            claims = jwtUtil.validarToken(token);
+            Date expiracion = claims.getExpiration();
+            // Sin fecha de expiración no se guarda: la entrada no caducaría nunca
+            if (expiracion != null) {
+                verificados.guardar(clave, claims, expiracion.getTime());
+            }
+        }
+        return claims;
+    }
+
+    private static String resumen(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Toda JVM debe incluir SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
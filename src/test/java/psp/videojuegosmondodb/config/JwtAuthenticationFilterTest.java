@@ -0,0 +1,118 @@
+package psp.videojuegosmondodb.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import psp.videojuegosmondodb.model.Rol;
+import psp.videojuegosmondodb.model.Usuario;
+import psp.videojuegosmondodb.service.RevocacionTokens;
+import psp.videojuegosmondodb.service.UsuarioService;
+import psp.videojuegosmondodb.util.JwtUtil;
+import psp.videojuegosmondodb.util.VerificadorTokens;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private JwtUtil jwtUtil;
+    private UsuarioService usuarioService;
+    private RevocacionTokens revocacionTokens;
+    private JwtAuthenticationFilter filtro;
+    private Usuario usuario;
+
+    @BeforeEach
+    void preparar() {
+        jwtUtil = spy(new JwtUtil("clave-de-pruebas-de-al-menos-32-bytes-para-hs256", 60_000, 600_000));
+        usuarioService = mock(UsuarioService.class);
+        revocacionTokens = mock(RevocacionTokens.class);
+        usuario = new Usuario();
+        usuario.setId("u1");
+        usuario.setEmail("ana@example.com");
+        usuario.setRol(Rol.USER);
+        when(usuarioService.cargarPrincipal("ana@example.com")).thenReturn(usuario);
+        VerificadorTokens verificadorTokens = new VerificadorTokens(jwtUtil, new SimpleMeterRegistry(), 100, 4);
+        filtro = new JwtAuthenticationFilter(verificadorTokens, usuarioService, revocacionTokens);
+    }
+
+    @AfterEach
+    void limpiarContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void autenticaConUnTokenDeAccesoYDejaLosClaimsEnLaPeticion() throws Exception {
+        MockHttpServletRequest request = peticion(jwtUtil.generateToken(usuario));
+        MockFilterChain cadena = new MockFilterChain();
+
+        filtro.doFilter(request, new MockHttpServletResponse(), cadena);
+
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(autenticacion).isNotNull();
+        assertThat(autenticacion.getPrincipal()).isSameAs(usuario);
+        assertThat(request.getAttribute(JwtUtil.ATRIBUTO_CLAIMS)).isNotNull();
+        assertThat(cadena.getRequest()).isSameAs(request);
+    }
+
+    @Test
+    void verificaCadaTokenUnaSolaVez() throws Exception {
+        String token = jwtUtil.generateToken(usuario);
+
+        for (int i = 0; i < 3; i++) {
+            filtro.doFilter(peticion(token), new MockHttpServletResponse(), new MockFilterChain());
+            SecurityContextHolder.clearContext();
+        }
+
+        verify(jwtUtil, times(1)).validarToken(token);
+        verify(usuarioService, times(3)).cargarPrincipal("ana@example.com");
+    }
+
+    @Test
+    void noAutenticaConUnTokenDeRefresco() throws Exception {
+        MockHttpServletRequest request = peticion(jwtUtil.generarRefresco(usuario));
+
+        filtro.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(request.getAttribute(JwtUtil.ATRIBUTO_CLAIMS)).isNull();
+    }
+
+    @Test
+    void noAutenticaConUnTokenRevocado() throws Exception {
+        when(revocacionTokens.estaRevocado(anyString())).thenReturn(true);
+
+        filtro.doFilter(peticion(jwtUtil.generateToken(usuario)), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(usuarioService, never()).cargarPrincipal(anyString());
+    }
+
+    @Test
+    void ignoraLosTokensNoValidosYContinuaLaCadena() throws Exception {
+        MockHttpServletRequest request = peticion("no.es.un-token");
+        MockFilterChain cadena = new MockFilterChain();
+
+        filtro.doFilter(request, new MockHttpServletResponse(), cadena);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(cadena.getRequest()).isSameAs(request);
+    }
+
+    private static MockHttpServletRequest peticion(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/valoraciones");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
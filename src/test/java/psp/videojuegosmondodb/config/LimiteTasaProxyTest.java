@@ -0,0 +1,41 @@
+package psp.videojuegosmondodb.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba con el Tomcat real que, tras un proxy interno, cada cliente anónimo tiene su propio cubo
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LimiteTasaProxyTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void losClientesTrasElProxySeLimitanPorSuPropiaIp() {
+        // La capacidad de /auth/login es 5; un cuerpo vacío se rechaza con 400 sin consultar MongoDB
+        for (int i = 0; i < 5; i++) {
+            assertThat(login("203.0.113.1")).isEqualTo(400);
+        }
+        assertThat(login("203.0.113.1")).isEqualTo(429);
+
+        assertThat(login("203.0.113.2")).isEqualTo(400);
+    }
+
+    private int login(String ipCliente) {
+        HttpHeaders cabeceras = new HttpHeaders();
+        cabeceras.setContentType(MediaType.APPLICATION_JSON);
+        // La petición llega desde 127.0.0.1, que Tomcat considera un proxy interno
+        cabeceras.set("X-Forwarded-For", ipCliente);
+        return restTemplate.postForEntity("/auth/login", new HttpEntity<>("{}", cabeceras), String.class)
+                .getStatusCode().value();
+    }
+}
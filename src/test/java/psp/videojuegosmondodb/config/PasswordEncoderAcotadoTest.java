@@ -0,0 +1,135 @@
+package psp.videojuegosmondodb.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.context.request.ServletWebRequest;
+import psp.videojuegosmondodb.exception.ErrorResponseWriter;
+import psp.videojuegosmondodb.exception.GlobalExceptionHandler;
+import psp.videojuegosmondodb.exception.ServiceUnavailableException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordEncoderAcotadoTest {
+
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private final ExecutorService clientes = Executors.newFixedThreadPool(2);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<String> hiloDelHash = new AtomicReference<>();
+
+    private PasswordEncoder delegado;
+    private PasswordEncoderAcotado passwordEncoder;
+
+    @BeforeEach
+    void preparar() {
+        delegado = mock(PasswordEncoder.class);
+        when(delegado.encode("secreta")).thenAnswer(invocacion -> {
+            hiloDelHash.set(Thread.currentThread().getName());
+            return "hash";
+        });
+        when(delegado.matches("secreta", "hash")).thenReturn(true);
+        when(delegado.encode("ocupar")).thenAnswer(invocacion -> {
+            liberar.await(10, TimeUnit.SECONDS);
+            return "ocupado";
+        });
+        when(delegado.encode("rompe")).thenThrow(new IllegalArgumentException("contraseña no válida"));
+        passwordEncoder = new PasswordEncoderAcotado(delegado, 1, 1, meterRegistry);
+    }
+
+    @AfterEach
+    void liberarPool() {
+        liberar.countDown();
+        clientes.shutdownNow();
+        passwordEncoder.close();
+    }
+
+    @Test
+    void calculaElHashEnSuPropioPool() {
+        assertThat(passwordEncoder.encode("secreta")).isEqualTo("hash");
+        assertThat(passwordEncoder.matches("secreta", "hash")).isTrue();
+        assertThat(passwordEncoder.matches("otra", "hash")).isFalse();
+
+        assertThat(hiloDelHash.get()).startsWith("hash-contrasenas-");
+        assertThat(meterRegistry.get("seguridad.hash.duracion").tag("operacion", "codificar").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("seguridad.hash.duracion").tag("operacion", "comprobar").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void rechazaAlMomentoConElPoolLleno() throws Exception {
+        ocuparPool();
+
+        long inicio = System.nanoTime();
+        assertThatThrownBy(() -> passwordEncoder.matches("secreta", "hash"))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThatThrownBy(() -> passwordEncoder.encode("secreta"))
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)).isLessThan(1_000);
+        assertThat(meterRegistry.get("seguridad.hash.rechazos").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void vuelveAAdmitirOperacionesAlVaciarseLaCola() throws Exception {
+        ocuparPool();
+        liberar.countDown();
+
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("seguridad.hash.activos").gauge().value() > 0
+                || meterRegistry.get("seguridad.hash.cola").gauge().value() > 0) {
+            assertThat(System.nanoTime()).isLessThan(limite);
+            Thread.sleep(5);
+        }
+
+        assertThat(passwordEncoder.encode("secreta")).isEqualTo("hash");
+    }
+
+    @Test
+    void propagaLasExcepcionesDelCodificador() {
+        assertThatThrownBy(() -> passwordEncoder.encode("rompe"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("contraseña no válida");
+    }
+
+    @Test
+    void elRechazoSeTraduceEnUn503ConRetryAfter() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler(new ErrorResponseWriter());
+
+        ResponseEntity<?> respuesta = handler.handleServiceUnavailableException(
+                new ServiceUnavailableException("saturado"),
+                new ServletWebRequest(new MockHttpServletRequest("POST", "/auth/login")));
+
+        assertThat(respuesta.getStatusCode().value()).isEqualTo(503);
+        assertThat(respuesta.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    /**
+     * Deja el único hilo del pool ocupado y la única plaza de la cola llena
+     */
+    private void ocuparPool() throws InterruptedException {
+        clientes.submit(() -> passwordEncoder.encode("ocupar"));
+        clientes.submit(() -> passwordEncoder.encode("ocupar"));
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("seguridad.hash.cola").gauge().value() < 1) {
+            if (System.nanoTime() > limite) {
+                throw new IllegalStateException("El pool de hash no se ha llenado");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
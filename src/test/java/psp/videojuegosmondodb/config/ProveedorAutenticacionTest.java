@@ -0,0 +1,124 @@
+package psp.videojuegosmondodb.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import psp.videojuegosmondodb.exception.ServiceUnavailableException;
+import psp.videojuegosmondodb.model.Rol;
+import psp.videojuegosmondodb.model.Usuario;
+import psp.videojuegosmondodb.service.UsuarioService;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProveedorAutenticacionTest {
+
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private final ExecutorService clientes = Executors.newFixedThreadPool(2);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PasswordEncoder delegado;
+    private PasswordEncoderAcotado passwordEncoder;
+    private UsuarioService usuarioService;
+    private ProveedorAutenticacion proveedor;
+    private Usuario usuario;
+
+    @BeforeEach
+    void preparar() {
+        delegado = mock(PasswordEncoder.class);
+        when(delegado.matches("secreta", "hash-antiguo")).thenReturn(true);
+        when(delegado.upgradeEncoding("hash-antiguo")).thenReturn(true);
+        when(delegado.encode("secreta")).thenReturn("hash-nuevo");
+        when(delegado.encode("ocupar")).thenAnswer(invocacion -> {
+            liberar.await(10, TimeUnit.SECONDS);
+            return "ocupado";
+        });
+        passwordEncoder = new PasswordEncoderAcotado(delegado, 1, 1, meterRegistry);
+
+        usuario = new Usuario();
+        usuario.setId("u1");
+        usuario.setEmail("ana@example.com");
+        usuario.setPassword("hash-antiguo");
+        usuario.setRol(Rol.USER);
+        usuarioService = mock(UsuarioService.class);
+        when(usuarioService.loadUserByUsername("ana@example.com")).thenReturn(usuario);
+        when(usuarioService.updatePassword(any(), anyString())).thenAnswer(invocacion -> {
+            usuario.setPassword(invocacion.getArgument(1));
+            return usuario;
+        });
+        proveedor = new ProveedorAutenticacion(usuarioService, passwordEncoder);
+    }
+
+    @AfterEach
+    void liberarPool() {
+        liberar.countDown();
+        clientes.shutdownNow();
+        passwordEncoder.close();
+    }
+
+    @Test
+    void rehaceElHashAntiguoTrasIniciarSesion() {
+        Authentication resultado = proveedor.authenticate(credenciales());
+
+        assertThat(resultado.isAuthenticated()).isTrue();
+        verify(usuarioService).updatePassword(usuario, "hash-nuevo");
+    }
+
+    @Test
+    void conservaElHashAntiguoSiElPoolEstaLleno() {
+        // Otras peticiones llenan el pool entre la comprobación de la contraseña y el rehash
+        when(delegado.upgradeEncoding("hash-antiguo")).thenAnswer(invocacion -> {
+            ocuparPool();
+            return true;
+        });
+
+        Authentication resultado = proveedor.authenticate(credenciales());
+
+        assertThat(resultado.isAuthenticated()).isTrue();
+        verify(usuarioService, never()).updatePassword(any(), anyString());
+        assertThat(usuario.getPassword()).isEqualTo("hash-antiguo");
+    }
+
+    @Test
+    void codificarSigueRechazandoConElPoolLleno() throws Exception {
+        ocuparPool();
+
+        assertThat(passwordEncoder.codificarSiHayHueco("secreta")).isEmpty();
+        assertThatThrownBy(() -> passwordEncoder.encode("secreta"))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    /**
+     * Deja el único hilo del pool ocupado y la única plaza de la cola llena
+     */
+    private void ocuparPool() throws InterruptedException {
+        clientes.submit(() -> passwordEncoder.encode("ocupar"));
+        clientes.submit(() -> passwordEncoder.encode("ocupar"));
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("seguridad.hash.cola").gauge().value() < 1) {
+            if (System.nanoTime() > limite) {
+                throw new IllegalStateException("El pool de hash no se ha llenado");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static UsernamePasswordAuthenticationToken credenciales() {
+        return UsernamePasswordAuthenticationToken.unauthenticated("ana@example.com", "secreta");
+    }
+}
@@ -0,0 +1,45 @@
+package psp.videojuegosmondodb.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TiempoEsperaExportacionTest {
+
+    private final TiempoEsperaExportacion interceptor = new TiempoEsperaExportacion(1_800_000);
+
+    @Test
+    void ampliaElTiempoDeLaExportacion() {
+        AsyncWebRequest peticion = peticion("GET", "/videojuegos/exportar");
+
+        interceptor.beforeConcurrentHandling(peticion, () -> null);
+
+        verify(peticion).setTimeout(1_800_000L);
+    }
+
+    @Test
+    void elRestoDePeticionesMantienenElTiempoGeneral() {
+        AsyncWebRequest flujo = peticion("GET", "/reactivo/videojuegos");
+        AsyncWebRequest listado = peticion("GET", "/videojuegos");
+
+        interceptor.beforeConcurrentHandling(flujo, () -> null);
+        interceptor.beforeConcurrentHandling(listado, () -> null);
+
+        verify(flujo, never()).setTimeout(anyLong());
+        verify(listado, never()).setTimeout(anyLong());
+    }
+
+    private static AsyncWebRequest peticion(String metodo, String ruta) {
+        AsyncWebRequest peticion = mock(AsyncWebRequest.class);
+        when(peticion.getNativeRequest(HttpServletRequest.class))
+                .thenReturn(new MockHttpServletRequest(metodo, ruta));
+        return peticion;
+    }
+}
@@ -0,0 +1,105 @@
+package psp.videojuegosmondodb.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Coste de una respuesta 404 completa: lanzar la excepción desde una pila de cierta profundidad,
+ * capturarla y serializar el cuerpo. Compara la forma anterior (excepción con traza, mensaje con
+ * String.format y ErrorResponse serializado con Jackson) con la actual (DomainException sin traza
+ * y cuerpo de {@link ErrorResponseWriter}). Con {@code -prof gc} se mide también la memoria por operación.
+ * <p>
+ * {@code mvn -Pbenchmark test -Dbenchmark.argumentos="ErrorResponseWriterBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorResponseWriterBenchmark {
+
+    private static final ErrorResponseWriter.TipoError NO_ENCONTRADO =
+            ErrorResponseWriter.tipo(HttpStatus.NOT_FOUND, "Recurso no encontrado");
+    private static final String RUTA = "uri=/videojuegos/";
+
+    /**
+     * Marcos de pila por encima del punto donde se lanza; una petición de Spring MVC suele superar el centenar
+     */
+    @Param({"10", "150"})
+    private int profundidad;
+
+    private ObjectMapper objectMapper;
+    private ErrorResponseWriter writer;
+    private String id;
+
+    @Setup
+    public void preparar() {
+        // Configurado como el de Spring Boot, con soporte de java.time
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = new ErrorResponseWriter();
+        id = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public byte[] anterior() throws Exception {
+        RuntimeException excepcion = capturar(profundidad, () -> new ExcepcionConTraza(
+                String.format("%s no encontrado con %s: '%s'", "Videojuego", "id", id)));
+        GlobalExceptionHandler.ErrorResponse cuerpo = new GlobalExceptionHandler.ErrorResponse(
+                LocalDateTime.now(), HttpStatus.NOT_FOUND.value(), "Recurso no encontrado",
+                excepcion.getMessage(), RUTA + id);
+        return objectMapper.writeValueAsBytes(cuerpo);
+    }
+
+    @Benchmark
+    public byte[] actual() {
+        RuntimeException excepcion = capturar(profundidad,
+                () -> new ResourceNotFoundException("Videojuego", "id", id));
+        return writer.cuerpo(NO_ENCONTRADO, excepcion.getMessage(), RUTA + id);
+    }
+
+    /**
+     * Lanza la excepción tras apilar el número de llamadas indicado y la devuelve ya capturada
+     */
+    private static RuntimeException capturar(int profundidad, Supplier<RuntimeException> excepcion) {
+        try {
+            lanzar(profundidad, excepcion);
+            throw new IllegalStateException();
+        } catch (ExcepcionConTraza | ResourceNotFoundException e) {
+            return e;
+        }
+    }
+
+    private static void lanzar(int profundidad, Supplier<RuntimeException> excepcion) {
+        if (profundidad == 0) {
+            throw excepcion.get();
+        }
+        lanzar(profundidad - 1, excepcion);
+    }
+
+    /**
+     * Excepción de dominio como eran antes de {@link DomainException}: con traza de pila completa
+     */
+    private static class ExcepcionConTraza extends RuntimeException {
+        ExcepcionConTraza(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package psp.videojuegosmondodb.exception;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ErrorResponseWriterTest {
+
+    private static final ErrorResponseWriter.TipoError NO_ENCONTRADO =
+            ErrorResponseWriter.tipo(HttpStatus.NOT_FOUND, "Recurso no encontrado");
+    private static final ErrorResponseWriter.TipoError ACCESO_DENEGADO =
+            ErrorResponseWriter.tipo(HttpStatus.FORBIDDEN, "Acceso denegado", "No tiene permisos");
+
+    private final ErrorResponseWriter writer = new ErrorResponseWriter();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void tieneLaFormaDeErrorResponse() throws Exception {
+        JsonNode cuerpo = leer(writer.cuerpo(NO_ENCONTRADO, "Videojuego no encontrado", "/videojuegos/1"));
+
+        assertThat(cuerpo.fieldNames()).toIterable()
+                .containsExactly("timestamp", "status", "error", "message", "path");
+        assertThat(cuerpo.get("status").asInt()).isEqualTo(404);
+        assertThat(cuerpo.get("error").asText()).isEqualTo("Recurso no encontrado");
+        assertThat(cuerpo.get("message").asText()).isEqualTo("Videojuego no encontrado");
+        assertThat(cuerpo.get("path").asText()).isEqualTo("/videojuegos/1");
+        LocalDateTime marca = LocalDateTime.parse(cuerpo.get("timestamp").asText());
+        assertThat(marca).isCloseTo(LocalDateTime.now(), within(2, ChronoUnit.SECONDS));
+    }
+
+    @Test
+    void escapaElMensajeYLaRuta() throws Exception {
+        String mensaje = "Título \"raro\" con \\ barra,\nsalto y ñ";
+        String ruta = "/buscar?q=\u0001</script>";
+
+        JsonNode cuerpo = leer(writer.cuerpo(NO_ENCONTRADO, mensaje, ruta));
+
+        assertThat(cuerpo.get("message").asText()).isEqualTo(mensaje);
+        assertThat(cuerpo.get("path").asText()).isEqualTo(ruta);
+    }
+
+    @Test
+    void losValoresNulosSeEscribenComoNull() throws Exception {
+        JsonNode cuerpo = leer(writer.cuerpo(NO_ENCONTRADO, null, null));
+
+        assertThat(cuerpo.get("message").isNull()).isTrue();
+        assertThat(cuerpo.get("path").isNull()).isTrue();
+    }
+
+    @Test
+    void elMensajeFijoDelTipoPrevalece() throws Exception {
+        JsonNode cuerpo = leer(writer.cuerpo(ACCESO_DENEGADO, "ignorado", "/admin"));
+
+        assertThat(cuerpo.get("status").asInt()).isEqualTo(403);
+        assertThat(cuerpo.get("message").asText()).isEqualTo("No tiene permisos");
+    }
+
+    @Test
+    void escribeLaRespuestaHttp() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.escribir(response, ACCESO_DENEGADO, null, "/admin");
+
+        assertThat(response.getStatus()).isEqualTo(403);
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(response.getContentLength()).isEqualTo(response.getContentAsByteArray().length);
+        assertThat(leer(response.getContentAsByteArray()).get("path").asText()).isEqualTo("/admin");
+    }
+
+    private JsonNode leer(byte[] cuerpo) throws Exception {
+        return objectMapper.readTree(cuerpo);
+    }
+}
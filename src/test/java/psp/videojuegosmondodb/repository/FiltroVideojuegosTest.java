@@ -0,0 +1,38 @@
+package psp.videojuegosmondodb.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class FiltroVideojuegosTest {
+
+    @Test
+    void laClaveNoDependeDelOrdenDeLosFiltros() {
+        FiltroVideojuegos uno = new FiltroVideojuegos().plataforma("PC").tituloContiene("Zelda")
+                .lanzadoEntre(LocalDate.of(2020, 1, 1), null);
+        FiltroVideojuegos otro = new FiltroVideojuegos().lanzadoEntre(LocalDate.of(2020, 1, 1), null)
+                .tituloContiene("zelda").plataforma("PC");
+
+        assertThat(uno.clave()).isEqualTo(otro.clave());
+    }
+
+    @Test
+    void unValorNoPuedeHacersePasarPorOtraDimension() {
+        FiltroVideojuegos soloPlataforma = new FiltroVideojuegos().plataforma("PC, titulo=zelda");
+        FiltroVideojuegos plataformaYTitulo = new FiltroVideojuegos().plataforma("PC").tituloContiene("Zelda");
+
+        assertThat(soloPlataforma.clave()).isNotEqualTo(plataformaYTitulo.clave());
+        assertThat(soloPlataforma.clave()).containsOnlyKeys("plataforma");
+    }
+
+    @Test
+    void losValoresVaciosNoFormanParteDeLaClave() {
+        FiltroVideojuegos filtro = new FiltroVideojuegos().plataforma("").genero(null).calificacionPEGI("PEGI 18");
+
+        assertThat(filtro.clave()).containsOnly(entry("calificacionPEGI", "PEGI 18"));
+        assertThat(new FiltroVideojuegos().clave()).isEmpty();
+    }
+}
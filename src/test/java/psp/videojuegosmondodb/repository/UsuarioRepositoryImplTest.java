@@ -0,0 +1,38 @@
+package psp.videojuegosmondodb.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UsuarioRepositoryImplTest {
+
+    @Test
+    void actualizarPasswordSoloEscribeElHash() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("usuarios")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        String id = new ObjectId().toHexString();
+
+        boolean actualizado = new UsuarioRepositoryImpl(mongoTemplate).actualizarPassword(id, "{bcrypt}nuevo");
+
+        assertThat(actualizado).isTrue();
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq("usuarios"));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", new ObjectId(id)));
+        assertThat(update.getValue().getUpdateObject())
+                .isEqualTo(new Document("$set", new Document("password", "{bcrypt}nuevo")));
+    }
+}
@@ -0,0 +1,91 @@
+package psp.videojuegosmondodb.repository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ValoracionRepositoryImplTest {
+
+    private MongoTemplate mongoTemplate;
+    private IndexOperations indices;
+    private ValoracionRepositoryImpl repositorio;
+
+    @BeforeEach
+    void preparar() {
+        mongoTemplate = mock(MongoTemplate.class);
+        MappingMongoConverter conversor = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        when(mongoTemplate.getConverter()).thenReturn(conversor);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("valoraciones")))
+                .thenAnswer(invocacion -> Stream.empty());
+        indices = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps("valoraciones")).thenReturn(indices);
+        repositorio = new ValoracionRepositoryImpl(mongoTemplate);
+    }
+
+    @Test
+    void laMigracionSustituyeLosIndicesSobreLasReferencias() {
+        when(indices.getIndexInfo()).thenReturn(List.of(
+                indice("_id_", "_id"),
+                indice("usuario_1_videojuego_1", "usuario", "videojuego"),
+                indice("videojuego_1", "videojuego")));
+
+        repositorio.migrarReferencias();
+
+        verify(indices).dropIndex("usuario_1_videojuego_1");
+        verify(indices).dropIndex("videojuego_1");
+        verify(indices, never()).dropIndex("_id_");
+        ArgumentCaptor<IndexDefinition> creados = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indices, times(3)).createIndex(creados.capture());
+        assertThat(creados.getAllValues()).anySatisfy(definicion -> {
+            assertThat(definicion.getIndexKeys()).isEqualTo(new Document("usuario.id", 1).append("videojuego.id", 1));
+            assertThat(definicion.getIndexOptions().getBoolean("unique")).isTrue();
+        });
+        assertThat(creados.getAllValues()).extracting(IndexDefinition::getIndexKeys).contains(
+                new Document("videojuego.id", 1).append("_id", 1),
+                new Document("videojuego.id", 1).append("puntuacion", 1).append("_id", 1));
+    }
+
+    @Test
+    void conLosIndicesNuevosNoEliminaNada() {
+        when(indices.getIndexInfo()).thenReturn(List.of(
+                indice("_id_", "_id"),
+                indice("usuario.id_1_videojuego.id_1", "usuario.id", "videojuego.id"),
+                indice("videojuego_id", "videojuego.id", "_id")));
+
+        repositorio.migrarReferencias();
+
+        verify(indices, never()).dropIndex(anyString());
+        verify(indices, times(3)).createIndex(any(IndexDefinition.class));
+    }
+
+    private static IndexInfo indice(String nombre, String... campos) {
+        List<IndexField> indexFields = Stream.of(campos)
+                .map(campo -> IndexField.create(campo, Sort.Direction.ASC))
+                .toList();
+        return new IndexInfo(indexFields, nombre, false, false, null);
+    }
+}
@@ -0,0 +1,132 @@
+package psp.videojuegosmondodb.repository;
+
+import com.mongodb.DBRef;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import psp.videojuegosmondodb.model.Desarrollador;
+import psp.videojuegosmondodb.model.Genero;
+import psp.videojuegosmondodb.model.Videojuego;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cuenta las consultas que cuesta leer una página del catálogo con referencias DBRef
+ */
+class VideojuegoRepositoryImplTest {
+
+    private static final String GENERO_ACCION = new ObjectId().toHexString();
+    private static final String GENERO_ROL = new ObjectId().toHexString();
+    private static final String ESTUDIO = new ObjectId().toHexString();
+
+    private MongoTemplate mongoTemplate;
+    private GeneroRepository generoRepository;
+    private DesarrolladorRepository desarrolladorRepository;
+    private VideojuegoRepositoryImpl repositorio;
+
+    @BeforeEach
+    void preparar() {
+        mongoTemplate = mock(MongoTemplate.class);
+        MongoCustomConversions conversiones = new MongoCustomConversions(List.of());
+        MongoMappingContext contexto = new MongoMappingContext();
+        contexto.setSimpleTypeHolder(conversiones.getSimpleTypeHolder());
+        MappingMongoConverter conversor = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, contexto);
+        conversor.setCustomConversions(conversiones);
+        conversor.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(conversor);
+
+        generoRepository = mock(GeneroRepository.class);
+        desarrolladorRepository = mock(DesarrolladorRepository.class);
+        when(generoRepository.findAllById(anyIterable())).thenReturn(List.of(
+                new Genero(GENERO_ACCION, "Acción"), new Genero(GENERO_ROL, "Rol")));
+        Desarrollador desarrollador = new Desarrollador();
+        desarrollador.setId(ESTUDIO);
+        desarrollador.setNombreEstudio("FromSoftware");
+        when(desarrolladorRepository.findAllById(anyIterable())).thenReturn(List.of(desarrollador));
+
+        ReferenciaCache referenciaCache = new ReferenciaCache(generoRepository, desarrolladorRepository,
+                new SimpleMeterRegistry(), 100, 600);
+        repositorio = new VideojuegoRepositoryImpl(mongoTemplate, referenciaCache);
+    }
+
+    @Test
+    void unaPaginaCuestaTresConsultasSeaCualSeaSuTamano() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("videojuegos")))
+                .thenReturn(pagina(50));
+
+        List<Videojuego> videojuegos = repositorio.buscarPagina(new FiltroVideojuegos(), null, null, 50);
+
+        assertThat(videojuegos).hasSize(50);
+        assertThat(videojuegos.get(0).getGenero().getNombre()).isEqualTo("Acción");
+        assertThat(videojuegos.get(1).getGenero().getNombre()).isEqualTo("Rol");
+        assertThat(videojuegos.get(0).getDesarrollador().getNombreEstudio()).isEqualTo("FromSoftware");
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Document.class), anyString());
+        verify(generoRepository, times(1)).findAllById(anyIterable());
+        verify(desarrolladorRepository, times(1)).findAllById(anyIterable());
+        verify(generoRepository, never()).findById(any());
+        verify(desarrolladorRepository, never()).findById(any());
+    }
+
+    @Test
+    void lasPaginasSiguientesReutilizanLasReferenciasEnCache() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("videojuegos")))
+                .thenReturn(pagina(20)).thenReturn(pagina(20));
+
+        repositorio.buscarPagina(new FiltroVideojuegos(), null, null, 20);
+        repositorio.buscarPagina(new FiltroVideojuegos(), "Juego 19", new ObjectId().toHexString(), 20);
+
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Document.class), anyString());
+        verify(generoRepository, times(1)).findAllById(anyIterable());
+        verify(desarrolladorRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void lasCopiasEmbebidasNoNecesitanConsultasAdicionales() {
+        Document embebido = new Document("_id", new ObjectId())
+                .append("titulo", "Elden Ring")
+                .append("genero", new Document("id", new ObjectId(GENERO_ROL)).append("nombre", "Rol"))
+                .append("desarrollador", new Document("id", new ObjectId(ESTUDIO)).append("nombreEstudio", "FromSoftware"));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("videojuegos")))
+                .thenReturn(new ArrayList<>(List.of(embebido)));
+
+        List<Videojuego> videojuegos = repositorio.buscarPagina(new FiltroVideojuegos(), null, null, 20);
+
+        assertThat(videojuegos.get(0).getGenero().getNombre()).isEqualTo("Rol");
+        verify(generoRepository, never()).findAllById(anyIterable());
+        verify(desarrolladorRepository, never()).findAllById(anyIterable());
+    }
+
+    /**
+     * Documentos con género y desarrollador como DBRef, como los que se guardaban antes de embeber las copias
+     */
+    private static List<Document> pagina(int tamano) {
+        List<Document> documentos = new ArrayList<>();
+        for (int i = 0; i < tamano; i++) {
+            documentos.add(new Document("_id", new ObjectId())
+                    .append("titulo", "Juego " + i)
+                    .append("genero", new DBRef("generos", new ObjectId(i % 2 == 0 ? GENERO_ACCION : GENERO_ROL)))
+                    .append("desarrollador", new DBRef("desarrolladores", new ObjectId(ESTUDIO))));
+        }
+        return documentos;
+    }
+}
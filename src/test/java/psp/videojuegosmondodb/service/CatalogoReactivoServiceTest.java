@@ -0,0 +1,62 @@
+package psp.videojuegosmondodb.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import psp.videojuegosmondodb.repository.FiltroVideojuegos;
+import psp.videojuegosmondodb.repository.OrdenValoraciones;
+import psp.videojuegosmondodb.repository.ValoracionReactivoRepository;
+import psp.videojuegosmondodb.repository.VideojuegoReactivoRepository;
+import psp.videojuegosmondodb.util.Paginacion;
+import reactor.core.publisher.Flux;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogoReactivoServiceTest {
+
+    private VideojuegoReactivoRepository videojuegoReactivoRepository;
+    private ValoracionReactivoRepository valoracionReactivoRepository;
+    private CatalogoReactivoService servicio;
+
+    @BeforeEach
+    void preparar() {
+        videojuegoReactivoRepository = mock(VideojuegoReactivoRepository.class);
+        valoracionReactivoRepository = mock(ValoracionReactivoRepository.class);
+        VideojuegoService videojuegoService = mock(VideojuegoService.class);
+        when(videojuegoService.crearFiltro(any(), any(), any(), any(), any(), any()))
+                .thenReturn(new FiltroVideojuegos());
+        when(videojuegoService.decodificarCursor(any())).thenReturn(new String[2]);
+        when(videojuegoReactivoRepository.recorrer(any(), any(), any(), anyInt())).thenReturn(Flux.empty());
+        when(valoracionReactivoRepository.recorrerPorVideojuego(any(), any(), any(), any(), anyInt()))
+                .thenReturn(Flux.empty());
+
+        Paginacion paginacion = new Paginacion();
+        ReflectionTestUtils.setField(paginacion, "limitePorDefecto", 50);
+        ReflectionTestUtils.setField(paginacion, "limiteMaximo", 500);
+        servicio = new CatalogoReactivoService(videojuegoReactivoRepository, valoracionReactivoRepository,
+                videojuegoService, mock(ValoracionService.class), paginacion);
+    }
+
+    @Test
+    void sinLimiteUsaElDeLosListadosPaginados() {
+        servicio.recorrer(null, null, null, null, null, null, null, null, null);
+
+        verify(videojuegoReactivoRepository).recorrer(any(), isNull(), isNull(), eq(50));
+    }
+
+    @Test
+    void acotaElLimiteAlMaximoConfigurado() {
+        servicio.recorrer(null, null, null, null, null, null, null, null, 10_000);
+        servicio.recorrerValoraciones("j1", null, null, 10_000);
+
+        verify(videojuegoReactivoRepository).recorrer(any(), isNull(), isNull(), eq(500));
+        verify(valoracionReactivoRepository).recorrerPorVideojuego(
+                eq("j1"), eq(OrdenValoraciones.RECIENTES), isNull(), isNull(), eq(500));
+    }
+}
@@ -0,0 +1,127 @@
+package psp.videojuegosmondodb.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import psp.videojuegosmondodb.dto.SugerenciaDTO;
+import psp.videojuegosmondodb.repository.ValoracionRepository;
+import psp.videojuegosmondodb.repository.VideojuegoRepository;
+import psp.videojuegosmondodb.util.NormalizadorTexto;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.function.BiConsumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Coste de una sugerencia de autocompletado sobre un catálogo en memoria, comparado con
+ * recorrer y ordenar todos los títulos del prefijo, que es lo que haría falta sin el árbol
+ * de segmentos. Los prefijos cortos son el peor caso del recorrido: abarcan gran parte del catálogo.
+ * <p>
+ * {@code mvn -Pbenchmark test -Dbenchmark.argumentos="IndiceAutocompletadoBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndiceAutocompletadoBenchmark {
+
+    private static final String[] SILABAS = {"ma", "ri", "o", "ze", "l", "da", "ka", "rt", "po", "ke", "mon", "su", "per"};
+
+    @Param({"200000"})
+    private int titulos;
+
+    @Param({"m", "ma", "mario"})
+    private String prefijo;
+
+    @Param({"10"})
+    private int limite;
+
+    private IndiceAutocompletado indice;
+    private String[] normalizados;
+    private String[] ids;
+    private long[] popularidades;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(42);
+        Map<String, String> catalogo = new LinkedHashMap<>();
+        Map<String, Long> popularidad = new HashMap<>();
+        for (int i = 0; i < titulos; i++) {
+            String id = Integer.toString(i);
+            catalogo.put(id, palabra(aleatorio) + " " + palabra(aleatorio));
+            popularidad.put(id, (long) aleatorio.nextInt(1000));
+        }
+
+        VideojuegoRepository videojuegoRepository = mock(VideojuegoRepository.class);
+        ValoracionRepository valoracionRepository = mock(ValoracionRepository.class);
+        doAnswer(invocacion -> {
+            BiConsumer<String, String> consumidor = invocacion.getArgument(0);
+            catalogo.forEach(consumidor);
+            return null;
+        }).when(videojuegoRepository).recorrerTitulos(any());
+        when(valoracionRepository.contarPorVideojuego()).thenReturn(popularidad);
+        indice = new IndiceAutocompletado(videojuegoRepository, valoracionRepository);
+        indice.cargar();
+
+        normalizados = new String[titulos];
+        ids = new String[titulos];
+        popularidades = new long[titulos];
+        int i = 0;
+        for (Map.Entry<String, String> entrada : catalogo.entrySet()) {
+            ids[i] = entrada.getKey();
+            normalizados[i] = NormalizadorTexto.normalizar(entrada.getValue());
+            popularidades[i] = popularidad.get(entrada.getKey());
+            i++;
+        }
+    }
+
+    @Benchmark
+    public List<SugerenciaDTO> indice() {
+        return indice.sugerir(prefijo, limite);
+    }
+
+    /**
+     * Alternativa sin índice: filtra todos los títulos por el prefijo y ordena los que coinciden
+     */
+    @Benchmark
+    public List<String> recorridoCompleto() {
+        return IntStream.range(0, normalizados.length)
+                .filter(i -> normalizados[i].startsWith(prefijo))
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(i -> -popularidades[i])
+                        .thenComparing(i -> normalizados[i]))
+                .limit(limite)
+                .map(i -> ids[i])
+                .toList();
+    }
+
+    private static String palabra(Random aleatorio) {
+        StringBuilder palabra = new StringBuilder();
+        int silabas = 2 + aleatorio.nextInt(3);
+        for (int i = 0; i < silabas; i++) {
+            palabra.append(SILABAS[aleatorio.nextInt(SILABAS.length)]);
+        }
+        return palabra.toString();
+    }
+}
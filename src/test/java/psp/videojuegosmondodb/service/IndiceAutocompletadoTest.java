@@ -0,0 +1,138 @@
+package psp.videojuegosmondodb.service;
+
+import org.junit.jupiter.api.Test;
+import psp.videojuegosmondodb.dto.SugerenciaDTO;
+import psp.videojuegosmondodb.repository.ValoracionRepository;
+import psp.videojuegosmondodb.repository.VideojuegoRepository;
+import psp.videojuegosmondodb.util.NormalizadorTexto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndiceAutocompletadoTest {
+
+    @Test
+    void sugiereLosMasPopularesDelPrefijo() {
+        IndiceAutocompletado indice = indiceCon(
+                Map.of("1", "Mario Kart", "2", "Mario Party", "3", "Mario Golf", "4", "Metroid", "5", "Máquina"),
+                Map.of("1", 50L, "2", 10L, "3", 10L, "5", 99L));
+
+        assertThat(ids(indice.sugerir("mario", 10))).containsExactly("1", "3", "2");
+        assertThat(ids(indice.sugerir("MARIO", 2))).containsExactly("1", "3");
+        assertThat(ids(indice.sugerir("ma", 10))).containsExactly("5", "1", "3", "2");
+        assertThat(indice.sugerir("zelda", 10)).isEmpty();
+        assertThat(indice.sugerir("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void coincideConUnRecorridoCompletoDelRango() {
+        // El árbol de segmentos debe dar lo mismo que ordenar todo el rango del prefijo
+        Random aleatorio = new Random(42);
+        Map<String, String> titulos = new LinkedHashMap<>();
+        Map<String, Long> popularidad = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            String id = String.format("%04d", i);
+            titulos.put(id, palabraAleatoria(aleatorio) + " " + palabraAleatoria(aleatorio));
+            popularidad.put(id, (long) aleatorio.nextInt(20));
+        }
+        IndiceAutocompletado indice = indiceCon(titulos, popularidad);
+
+        for (int i = 0; i < 200; i++) {
+            String prefijo = palabraAleatoria(aleatorio).substring(0, 1 + aleatorio.nextInt(2));
+            int limite = 1 + aleatorio.nextInt(10);
+            assertThat(ids(indice.sugerir(prefijo, limite)))
+                    .as("prefijo %s, límite %d", prefijo, limite)
+                    .containsExactlyElementsOf(esperado(titulos, popularidad, prefijo, limite));
+        }
+    }
+
+    @Test
+    void losCambiosPendientesSeVenAntesDeIntegrarlos() {
+        IndiceAutocompletado indice = indiceCon(
+                Map.of("1", "Portal", "2", "Portal 2", "3", "Prey"),
+                Map.of("1", 5L, "2", 8L, "3", 1L));
+
+        indice.guardar("4", "Portal Stories");
+        indice.guardar("2", "Half-Life 2");
+        indice.eliminar("1");
+
+        assertThat(ids(indice.sugerir("portal", 10))).containsExactly("4");
+        // El cambio de título conserva la popularidad que ya tenía
+        assertThat(ids(indice.sugerir("h", 10))).containsExactly("2");
+        assertThat(indice.titulo("2")).contains("Half-Life 2");
+        assertThat(indice.titulo("1")).isEmpty();
+
+        indice.integrarCambios();
+
+        assertThat(ids(indice.sugerir("portal", 10))).containsExactly("4");
+        assertThat(ids(indice.sugerir("p", 10))).containsExactly("3", "4");
+        assertThat(ids(indice.sugerir("h", 10))).containsExactly("2");
+        assertThat(indice.titulo("4")).contains("Portal Stories");
+        assertThat(indice.titulo("1")).isEmpty();
+    }
+
+    @Test
+    void unCambioPendienteCompiteConLosDelIndice() {
+        IndiceAutocompletado indice = indiceCon(
+                Map.of("1", "Tetris", "2", "Tekken"),
+                Map.of("1", 3L, "2", 7L));
+
+        indice.guardar("1", "Tetris Effect");
+
+        assertThat(ids(indice.sugerir("te", 1))).containsExactly("2");
+        assertThat(ids(indice.sugerir("te", 2))).containsExactly("2", "1");
+    }
+
+    private static IndiceAutocompletado indiceCon(Map<String, String> titulos, Map<String, Long> popularidad) {
+        VideojuegoRepository videojuegoRepository = mock(VideojuegoRepository.class);
+        ValoracionRepository valoracionRepository = mock(ValoracionRepository.class);
+        doAnswer(invocacion -> {
+            BiConsumer<String, String> consumidor = invocacion.getArgument(0);
+            titulos.forEach(consumidor);
+            return null;
+        }).when(videojuegoRepository).recorrerTitulos(any());
+        when(valoracionRepository.contarPorVideojuego()).thenReturn(popularidad);
+        IndiceAutocompletado indice = new IndiceAutocompletado(videojuegoRepository, valoracionRepository);
+        indice.cargar();
+        return indice;
+    }
+
+    private static List<String> esperado(Map<String, String> titulos, Map<String, Long> popularidad,
+                                         String prefijo, int limite) {
+        List<String> ids = new ArrayList<>();
+        titulos.forEach((id, titulo) -> {
+            if (NormalizadorTexto.normalizar(titulo).startsWith(prefijo)) {
+                ids.add(id);
+            }
+        });
+        ids.sort(Comparator.<String>comparingLong(id -> -popularidad.getOrDefault(id, 0L))
+                .thenComparing(id -> NormalizadorTexto.normalizar(titulos.get(id)))
+                .thenComparing(id -> id));
+        return ids.subList(0, Math.min(limite, ids.size()));
+    }
+
+    private static String palabraAleatoria(Random aleatorio) {
+        StringBuilder palabra = new StringBuilder();
+        int longitud = 3 + aleatorio.nextInt(5);
+        for (int i = 0; i < longitud; i++) {
+            palabra.append((char) ('a' + aleatorio.nextInt(4)));
+        }
+        return palabra.toString();
+    }
+
+    private static List<String> ids(List<SugerenciaDTO> sugerencias) {
+        return sugerencias.stream().map(SugerenciaDTO::getId).toList();
+    }
+}
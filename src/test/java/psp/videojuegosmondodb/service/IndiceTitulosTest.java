@@ -0,0 +1,132 @@
+package psp.videojuegosmondodb.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import psp.videojuegosmondodb.repository.VideojuegoRepository;
+
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class IndiceTitulosTest {
+
+    @Test
+    void ordenaPorRelevanciaYDespuesPorTitulo() {
+        IndiceTitulos indice = indiceCon(
+                "1", "Mario Kart",
+                "2", "Mario",
+                "3", "Super Mario Bros",
+                "4", "Supermario",
+                "5", "Zelda");
+
+        assertThat(indice.buscar("mario", null, null, 10)).containsExactly("2", "1", "3", "4");
+    }
+
+    @Test
+    void lasConsultasCortasCoincidenEnCualquierPosicion() {
+        // Igual que la expresión regular que se usa mientras el índice no está listo
+        IndiceTitulos indice = indiceCon(
+                "1", "Celeste",
+                "2", "Elden Ring",
+                "3", "Hades");
+
+        assertThat(indice.buscar("el", null, null, 10)).containsExactly("2", "1");
+        assertThat(indice.buscar("s", null, null, 10)).containsExactly("1", "3");
+    }
+
+    @Test
+    void ignoraMayusculasYTildes() {
+        IndiceTitulos indice = indiceCon("1", "Pokémon Rojo", "2", "Tetris");
+
+        assertThat(indice.buscar("POKEMON", null, null, 10)).containsExactly("1");
+        assertThat(indice.buscar("kém", null, null, 10)).containsExactly("1");
+    }
+
+    @Test
+    void continuaDespuesDelCursor() {
+        IndiceTitulos indice = indiceCon(
+                "1", "Dark Souls",
+                "2", "Dark Souls II",
+                "3", "Dark Souls III",
+                "4", "Demon's Souls");
+
+        assertThat(indice.buscar("souls", null, null, 2)).containsExactly("1", "2");
+        assertThat(indice.buscar("souls", "Dark Souls II", "2", 2)).containsExactly("3", "4");
+        assertThat(indice.buscar("souls", "Demon's Souls", "4", 2)).isEmpty();
+    }
+
+    @Test
+    void aplicaAltasCambiosYBajas() {
+        IndiceTitulos indice = indiceCon("1", "Portal");
+        indice.agregar("2", "Portal 2");
+        indice.agregar("1", "Half-Life");
+        indice.eliminar("2");
+
+        assertThat(indice.buscar("portal", null, null, 10)).isEmpty();
+        assertThat(indice.buscar("half", null, null, 10)).containsExactly("1");
+    }
+
+    @Test
+    void reintentaLaCargaSiFallaAlArrancar() {
+        VideojuegoRepository repositorio = mock(VideojuegoRepository.class);
+        doThrow(new IllegalStateException("MongoDB no disponible"))
+                .doAnswer(titulos("1", "Celeste"))
+                .when(repositorio).recorrerTitulos(any());
+        IndiceTitulos indice = indiceSinCargar(repositorio);
+
+        indice.cargar();
+        assertThat(indice.estaListo()).isFalse();
+
+        indice.reintentarCarga();
+        assertThat(indice.estaListo()).isTrue();
+        assertThat(indice.buscar("celeste", null, null, 10)).containsExactly("1");
+    }
+
+    private static IndiceTitulos indiceCon(String... idsYTitulos) {
+        VideojuegoRepository repositorio = mock(VideojuegoRepository.class);
+        doAnswer(titulos(idsYTitulos)).when(repositorio).recorrerTitulos(any());
+        IndiceTitulos indice = indiceSinCargar(repositorio);
+        indice.cargar();
+        return indice;
+    }
+
+    @Test
+    void elReintentoPasaPorElProxy() {
+        // Así la carga se ejecuta como @Async y no en el hilo de las tareas programadas
+        DefaultListableBeanFactory fabrica = new DefaultListableBeanFactory();
+        IndiceTitulos proxy = mock(IndiceTitulos.class);
+        fabrica.registerSingleton("indiceTitulos", proxy);
+        IndiceTitulos indice = new IndiceTitulos(mock(VideojuegoRepository.class),
+                fabrica.getBeanProvider(IndiceTitulos.class));
+
+        indice.reintentarCarga();
+
+        verify(proxy).cargar();
+    }
+
+    /**
+     * Índice cuyo proxy es él mismo, como si las llamadas @Async se ejecutaran en el acto
+     */
+    private static IndiceTitulos indiceSinCargar(VideojuegoRepository repositorio) {
+        DefaultListableBeanFactory fabrica = new DefaultListableBeanFactory();
+        IndiceTitulos indice = new IndiceTitulos(repositorio, fabrica.getBeanProvider(IndiceTitulos.class));
+        fabrica.registerSingleton("indiceTitulos", indice);
+        return indice;
+    }
+
+    private static Answer<Void> titulos(String... idsYTitulos) {
+        return invocacion -> {
+            BiConsumer<String, String> consumidor = invocacion.getArgument(0);
+            for (int i = 0; i < idsYTitulos.length; i += 2) {
+                consumidor.accept(idsYTitulos[i], idsYTitulos[i + 1]);
+            }
+            return null;
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package psp.videojuegosmondodb.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import psp.videojuegosmondodb.exception.OperationInProgressException;
+import psp.videojuegosmondodb.repository.ValoracionRepository;
+import psp.videojuegosmondodb.repository.VideojuegoRepository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ReconciliacionValoracionesTest {
+
+    @Test
+    void rechazaUnaSegundaReconstruccionSimultanea() throws Exception {
+        CountDownLatch recorriendo = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        VideojuegoRepository videojuegoRepository = mock(VideojuegoRepository.class);
+        doAnswer(invocacion -> {
+            recorriendo.countDown();
+            liberar.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(videojuegoRepository).recorrerTitulos(any());
+        ReconciliacionValoraciones reconciliacion = new ReconciliacionValoraciones(videojuegoRepository,
+                mock(ValoracionRepository.class), 500, 2, new MockEnvironment());
+
+        CompletableFuture<?> primera = CompletableFuture.runAsync(reconciliacion::reconciliar);
+        assertThat(recorriendo.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(reconciliacion::reconciliar)
+                .isInstanceOf(OperationInProgressException.class);
+
+        liberar.countDown();
+        primera.get(5, TimeUnit.SECONDS);
+        // Terminada la primera, se puede volver a lanzar
+        assertThat(reconciliacion.reconciliar().getVideojuegos()).isZero();
+    }
+}
@@ -0,0 +1,88 @@
+package psp.videojuegosmondodb.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import psp.videojuegosmondodb.dto.ValoracionDTO;
+import psp.videojuegosmondodb.exception.ResourceNotFoundException;
+import psp.videojuegosmondodb.model.Usuario;
+import psp.videojuegosmondodb.model.Valoracion;
+import psp.videojuegosmondodb.repository.ValoracionRepository;
+import psp.videojuegosmondodb.repository.VideojuegoRepository;
+import psp.videojuegosmondodb.util.Paginacion;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ValoracionServiceTest {
+
+    private ValoracionRepository valoracionRepository;
+    private VideojuegoRepository videojuegoRepository;
+    private IndiceAutocompletado indiceAutocompletado;
+    private ValoracionService servicio;
+
+    private final Usuario usuario = new Usuario();
+
+    @BeforeEach
+    void preparar() {
+        valoracionRepository = mock(ValoracionRepository.class);
+        videojuegoRepository = mock(VideojuegoRepository.class);
+        indiceAutocompletado = mock(IndiceAutocompletado.class);
+        servicio = new ValoracionService(valoracionRepository, videojuegoRepository,
+                indiceAutocompletado, mock(Paginacion.class));
+        usuario.setId("u1");
+        usuario.setNombre("Ana");
+        when(valoracionRepository.insert(any(Valoracion.class))).thenAnswer(invocacion -> {
+            Valoracion valoracion = invocacion.getArgument(0);
+            valoracion.setId("v1");
+            return valoracion;
+        });
+    }
+
+    @Test
+    void creaLaValoracionConElTituloDelIndice() {
+        when(indiceAutocompletado.titulo("j1")).thenReturn(Optional.of("Celeste"));
+        when(videojuegoRepository.registrarValoracion("j1", 8)).thenReturn(true);
+
+        ValoracionDTO creada = servicio.crear(valoracion("j1", 8), usuario);
+
+        assertThat(creada.getVideojuegoTitulo()).isEqualTo("Celeste");
+        assertThat(creada.getUsuarioId()).isEqualTo("u1");
+        verify(videojuegoRepository, never()).buscarTitulo(any());
+        verify(valoracionRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void deshaceElInsertSiElVideojuegoYaNoExiste() {
+        // El índice todavía conoce el título de un videojuego que se acaba de borrar
+        when(indiceAutocompletado.titulo("j1")).thenReturn(Optional.of("Celeste"));
+        when(videojuegoRepository.registrarValoracion("j1", 8)).thenReturn(false);
+
+        assertThatThrownBy(() -> servicio.crear(valoracion("j1", 8), usuario))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(valoracionRepository).deleteById("v1");
+    }
+
+    @Test
+    void respondeNoEncontradoSinInsertarSiNadieConoceElVideojuego() {
+        when(indiceAutocompletado.titulo("j2")).thenReturn(Optional.empty());
+        when(videojuegoRepository.buscarTitulo("j2")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> servicio.crear(valoracion("j2", 5), usuario))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(valoracionRepository, never()).insert(any(Valoracion.class));
+    }
+
+    private static ValoracionDTO valoracion(String videojuegoId, int puntuacion) {
+        ValoracionDTO dto = new ValoracionDTO();
+        dto.setVideojuegoId(videojuegoId);
+        dto.setPuntuacion(puntuacion);
+        return dto;
+    }
+}
@@ -0,0 +1,73 @@
+package psp.videojuegosmondodb.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheAcotadaTest {
+
+    @Test
+    void expulsaLaEntradaMenosUsadaRecientemente() {
+        CacheAcotada<String, Integer> cache = new CacheAcotada<>(2);
+        cache.guardar("a", 1);
+        cache.guardar("b", 2);
+        cache.obtener("a");
+        cache.guardar("c", 3);
+
+        assertThat(cache.obtener("a")).isEqualTo(1);
+        assertThat(cache.obtener("b")).isNull();
+        assertThat(cache.obtener("c")).isEqualTo(3);
+        assertThat(cache.expulsiones()).isEqualTo(1);
+    }
+
+    @Test
+    void descartaLasEntradasCaducadas() {
+        CacheAcotada<String, Integer> cache = new CacheAcotada<>(10, Duration.ofHours(1));
+        cache.guardar("a", 1, System.currentTimeMillis() - 1);
+        cache.guardar("b", 2);
+
+        assertThat(cache.obtener("a")).isNull();
+        assertThat(cache.obtener("b")).isEqualTo(2);
+        assertThat(cache.tamano()).isEqualTo(1);
+    }
+
+    @Test
+    void cargaYGuardaLosFallos() {
+        CacheAcotada<String, Integer> cache = new CacheAcotada<>(10);
+
+        assertThat(cache.obtener("a", clave -> 1)).isEqualTo(1);
+        assertThat(cache.obtener("a", clave -> 2)).isEqualTo(1);
+        assertThat(cache.obtener("b", clave -> null)).isNull();
+        assertThat(cache.tamano()).isEqualTo(1);
+        assertThat(cache.aciertos()).isEqualTo(1);
+    }
+
+    @Test
+    void noGuardaUnValorCargadoAntesDeInvalidar() {
+        CacheAcotada<String, Integer> cache = new CacheAcotada<>(10);
+
+        Integer valor = cache.obtener("a", clave -> {
+            // Una escritura invalida la caché mientras la carga está en curso
+            cache.invalidarTodo();
+            return 1;
+        });
+
+        assertThat(valor).isEqualTo(1);
+        assertThat(cache.obtener("a")).isNull();
+        assertThat(cache.obtener("a", clave -> 2)).isEqualTo(2);
+        assertThat(cache.obtener("a")).isEqualTo(2);
+    }
+
+    @Test
+    void guardarSiVigenteRespetaLaGeneracion() {
+        CacheAcotada<String, Integer> cache = new CacheAcotada<>(10);
+        long generacion = cache.generacion();
+        cache.invalidar("otra");
+
+        assertThat(cache.guardarSiVigente("a", 1, generacion)).isFalse();
+        assertThat(cache.guardarSiVigente("a", 1, cache.generacion())).isTrue();
+        assertThat(cache.obtener("a")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,107 @@
+package psp.videojuegosmondodb.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheSegmentadaTest {
+
+    private static final long SIN_CADUCIDAD = Long.MAX_VALUE;
+
+    @Test
+    void guardaYObtieneEnElSegmentoDeCadaClave() {
+        CacheSegmentada<String, Integer> cache = new CacheSegmentada<>(100, 4);
+        for (int i = 0; i < 50; i++) {
+            cache.guardar("clave-" + i, i, SIN_CADUCIDAD);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(cache.obtener("clave-" + i)).isEqualTo(i);
+        }
+        assertThat(cache.obtener("otra")).isNull();
+        assertThat(cache.tamano()).isEqualTo(50);
+        assertThat(cache.aciertos()).isEqualTo(50);
+        assertThat(cache.fallos()).isEqualTo(1);
+        assertThat(cache.inserciones()).isEqualTo(50);
+    }
+
+    @Test
+    void elTamanoMaximoSeRepartePorSegmentos() {
+        CacheSegmentada<Integer, Integer> cache = new CacheSegmentada<>(64, 8);
+        for (int i = 0; i < 1000; i++) {
+            cache.guardar(i, i, SIN_CADUCIDAD);
+        }
+
+        assertThat(cache.tamano()).isLessThanOrEqualTo(64);
+        assertThat(cache.expulsiones()).isEqualTo(1000 - cache.tamano());
+        // Las últimas claves guardadas siguen en caché
+        assertThat(cache.obtener(999)).isEqualTo(999);
+    }
+
+    @Test
+    void respetaLaCaducidadDeCadaEntrada() {
+        CacheSegmentada<String, String> cache = new CacheSegmentada<>(10, 2);
+        cache.guardar("caducada", "a", System.currentTimeMillis() - 1);
+        cache.guardar("vigente", "b", System.currentTimeMillis() + 60_000);
+
+        assertThat(cache.obtener("caducada")).isNull();
+        assertThat(cache.obtener("vigente")).isEqualTo("b");
+    }
+
+    @Test
+    void invalidarTodoVaciaTodosLosSegmentos() {
+        CacheSegmentada<Integer, Integer> cache = new CacheSegmentada<>(100, 4);
+        for (int i = 0; i < 20; i++) {
+            cache.guardar(i, i, SIN_CADUCIDAD);
+        }
+
+        cache.invalidarTodo();
+
+        assertThat(cache.tamano()).isZero();
+        assertThat(cache.obtener(1)).isNull();
+    }
+
+    @Test
+    void rechazaUnNumeroDeSegmentosNoValido() {
+        assertThatThrownBy(() -> new CacheSegmentada<String, String>(10, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void admiteAccesosConcurrentes() throws Exception {
+        CacheSegmentada<Integer, Integer> cache = new CacheSegmentada<>(1000, 16);
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < 8; h++) {
+                int desplazamiento = h;
+                tareas.add(hilos.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        int clave = (i * 8 + desplazamiento) % 2000;
+                        Integer valor = cache.obtener(clave);
+                        if (valor == null) {
+                            cache.guardar(clave, clave, SIN_CADUCIDAD);
+                        } else {
+                            assertThat(valor).isEqualTo(clave);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            hilos.shutdown();
+        }
+
+        assertThat(cache.tamano()).isLessThanOrEqualTo(1008);
+        assertThat(cache.aciertos() + cache.fallos()).isEqualTo(8 * 20_000);
+    }
+}
@@ -0,0 +1,50 @@
+package psp.videojuegosmondodb.util;
+
+import org.junit.jupiter.api.Test;
+import psp.videojuegosmondodb.exception.BadRequestException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorUtilTest {
+
+    @Test
+    void decodificaLoQueCodifica() {
+        String cursor = CursorUtil.codificar("Pokémon: Edición Oro", "65f0c1a2b3c4d5e6f7a8b9c0");
+
+        assertThat(CursorUtil.decodificar(cursor, 2))
+                .containsExactly("Pokémon: Edición Oro", "65f0c1a2b3c4d5e6f7a8b9c0");
+    }
+
+    @Test
+    void elCursorEsAptoParaUrl() {
+        // Bytes que en Base64 estándar producirían '+', '/' y relleno
+        String cursor = CursorUtil.codificar("??>>~~", "");
+
+        assertThat(cursor).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void conservaLasPartesVacias() {
+        String cursor = CursorUtil.codificar("", "id");
+
+        assertThat(CursorUtil.decodificar(cursor, 2)).containsExactly("", "id");
+    }
+
+    @Test
+    void rechazaUnNumeroDePartesDistinto() {
+        String cursor = CursorUtil.codificar("titulo", "id");
+
+        assertThatThrownBy(() -> CursorUtil.decodificar(cursor, 1))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorUtil.decodificar(cursor, 3))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rechazaCursoresQueNoSonBase64() {
+        assertThatThrownBy(() -> CursorUtil.decodificar("no es base64!", 1))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Cursor de paginación no válido");
+    }
+}
@@ -0,0 +1,83 @@
+package psp.videojuegosmondodb.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FiltroBloomTest {
+
+    @Test
+    void noTieneFalsosNegativos() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        List<String> valores = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            valores.add(UUID.randomUUID().toString());
+        }
+        valores.forEach(filtro::agregar);
+
+        assertThat(valores).allMatch(filtro::puedeContener);
+    }
+
+    @Test
+    void losFalsosPositivosRondanLaProbabilidadIndicada() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("revocado-" + i);
+        }
+
+        int falsosPositivos = 0;
+        int pruebas = 100_000;
+        for (int i = 0; i < pruebas; i++) {
+            if (filtro.puedeContener("vigente-" + i)) {
+                falsosPositivos++;
+            }
+        }
+
+        // Margen amplio sobre el 1 % para que la prueba no dependa de los valores concretos
+        assertThat((double) falsosPositivos / pruebas).isLessThan(0.02);
+    }
+
+    @Test
+    void unFiltroVacioNoContieneNada() {
+        FiltroBloom filtro = new FiltroBloom(0, 0.01);
+
+        assertThat(filtro.puedeContener("")).isFalse();
+        assertThat(filtro.puedeContener("jti")).isFalse();
+    }
+
+    @Test
+    void noPierdeBitsConEscriturasConcurrentes() throws Exception {
+        // Con 40 000 valores en unas 6 000 palabras de 64 bits, los hilos coinciden a menudo en la misma
+        FiltroBloom filtro = new FiltroBloom(40_000, 0.01);
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < 8; h++) {
+                int hilo = h;
+                tareas.add(hilos.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        filtro.agregar(hilo + "-" + i);
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            hilos.shutdown();
+        }
+
+        for (int h = 0; h < 8; h++) {
+            for (int i = 0; i < 5_000; i++) {
+                assertThat(filtro.puedeContener(h + "-" + i)).isTrue();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package psp.videojuegosmondodb.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import psp.videojuegosmondodb.model.Rol;
+import psp.videojuegosmondodb.model.Usuario;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens por segundo que verifica una petición autenticada con cada una de las formas de validar el JWT:
+ * la anterior (tres lecturas del token, creando clave y parser en cada una), la de JwtUtil con el parser
+ * compartido y la de VerificadorTokens cuando el token ya está en caché.
+ * <p>
+ * {@code mvn -Pbenchmark test -Dbenchmark.argumentos="JwtUtilBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRETO = "miClaveSecretaSuperSeguraParaJWT2024ConMasDe256BitsDeSeguridad123456789";
+
+    private JwtUtil jwtUtil;
+    private VerificadorTokens verificadorTokens;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        jwtUtil = new JwtUtil(SECRETO, 900_000, 604_800_000);
+        verificadorTokens = new VerificadorTokens(jwtUtil, new SimpleMeterRegistry(), 10_000, 16);
+        Usuario usuario = new Usuario();
+        usuario.setId("64b7f0c2a1d3e4f5a6b7c8d9");
+        usuario.setEmail("ana@example.com");
+        usuario.setRol(Rol.USER);
+        token = jwtUtil.generateToken(usuario);
+    }
+
+    /**
+     * Lo que hacía cada petición antes: extractUsername en el filtro y, dentro de validateToken,
+     * extractUsername y extractExpiration, cada uno con su propia clave y su propio parser
+     */
+    @Benchmark
+    public void anterior(Blackhole blackhole) {
+        blackhole.consume(leerConParserNuevo().getSubject());
+        blackhole.consume(leerConParserNuevo().getSubject());
+        blackhole.consume(leerConParserNuevo().getExpiration());
+    }
+
+    @Benchmark
+    public Claims parserCompartido() {
+        return jwtUtil.validarToken(token);
+    }
+
+    @Benchmark
+    public Claims verificadorConCache() {
+        return verificadorTokens.verificar(token);
+    }
+
+    private Claims leerConParserNuevo() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRETO.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,73 @@
+package psp.videojuegosmondodb.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import psp.videojuegosmondodb.model.Rol;
+import psp.videojuegosmondodb.model.Usuario;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private static final String SECRETO = "clave-de-pruebas-de-al-menos-32-bytes-para-hs256";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRETO, 60_000, 600_000);
+
+    @Test
+    void validaElTokenDeAccesoEnUnaSolaPasada() {
+        Claims claims = jwtUtil.validarToken(jwtUtil.generateToken(usuario()));
+
+        assertThat(claims.getSubject()).isEqualTo("ana@example.com");
+        assertThat(claims.get("id", String.class)).isEqualTo("u1");
+        assertThat(claims.get("rol", String.class)).isEqualTo("ADMIN");
+        assertThat(claims.getId()).isNotBlank();
+        assertThat(claims.getExpiration()).isAfter(claims.getIssuedAt());
+        assertThat(JwtUtil.esRefresco(claims)).isFalse();
+    }
+
+    @Test
+    void distingueLosTokensDeRefresco() {
+        Claims claims = jwtUtil.validarToken(jwtUtil.generarRefresco(usuario()));
+
+        assertThat(JwtUtil.esRefresco(claims)).isTrue();
+        assertThat(claims.get("rol")).isNull();
+    }
+
+    @Test
+    void cadaTokenTieneSuPropioIdentificador() {
+        String primero = jwtUtil.generateToken(usuario());
+        String segundo = jwtUtil.generateToken(usuario());
+
+        assertThat(jwtUtil.validarToken(primero).getId()).isNotEqualTo(jwtUtil.validarToken(segundo).getId());
+    }
+
+    @Test
+    void rechazaTokensManipuladosOFirmadosConOtraClave() {
+        String token = jwtUtil.generateToken(usuario());
+        String manipulado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        JwtUtil otraClave = new JwtUtil("otra-clave-distinta-de-al-menos-32-bytes-hs256", 60_000, 600_000);
+
+        assertThatThrownBy(() -> jwtUtil.validarToken(manipulado)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> otraClave.validarToken(token)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtUtil.validarToken("no.es.un-token")).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void rechazaTokensCaducados() {
+        JwtUtil caducado = new JwtUtil(SECRETO, -1_000, 600_000);
+
+        assertThatThrownBy(() -> jwtUtil.validarToken(caducado.generateToken(usuario())))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    private static Usuario usuario() {
+        Usuario usuario = new Usuario();
+        usuario.setId("u1");
+        usuario.setEmail("ana@example.com");
+        usuario.setRol(Rol.ADMIN);
+        return usuario;
+    }
+}
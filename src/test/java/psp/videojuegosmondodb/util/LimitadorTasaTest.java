@@ -0,0 +1,78 @@
+package psp.videojuegosmondodb.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LimitadorTasaTest {
+
+    private static final long MINUTO = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void admiteLaRafagaYDespuesIndicaCuantoEsperar() {
+        LimitadorTasa limitador = new LimitadorTasa(100);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limitador.intentar("login|ip:1", 3, MINUTO)).isZero();
+        }
+        long espera = limitador.intentar("login|ip:1", 3, MINUTO);
+
+        assertThat(espera).isPositive().isLessThanOrEqualTo(MINUTO);
+        assertThat(limitador.rechazos()).isEqualTo(1);
+    }
+
+    @Test
+    void cadaClaveTieneSuPropioCubo() {
+        LimitadorTasa limitador = new LimitadorTasa(100);
+
+        assertThat(limitador.intentar("login|ip:1", 1, MINUTO)).isZero();
+        assertThat(limitador.intentar("login|ip:1", 1, MINUTO)).isPositive();
+        assertThat(limitador.intentar("login|ip:2", 1, MINUTO)).isZero();
+        assertThat(limitador.intentar("registro|ip:1", 1, MINUTO)).isZero();
+    }
+
+    @Test
+    void conLaTablaLlenaSoloRechazaLasClavesNuevas() {
+        LimitadorTasa limitador = new LimitadorTasa(2);
+        limitador.intentar("login|ip:1", 5, MINUTO);
+        limitador.intentar("login|ip:2", 5, MINUTO);
+
+        // Los cubos existentes siguen activos: la purga no libera sitio
+        assertThat(limitador.intentar("login|ip:3", 5, MINUTO)).isEqualTo(MINUTO);
+        assertThat(limitador.intentar("login|ip:4", 5, MINUTO)).isEqualTo(MINUTO);
+        assertThat(limitador.desbordamientos()).isEqualTo(2);
+
+        // Los clientes que ya tenían cubo no comparten el rechazo
+        assertThat(limitador.intentar("login|ip:1", 5, MINUTO)).isZero();
+        assertThat(limitador.intentar("login|ip:2", 5, MINUTO)).isZero();
+        assertThat(limitador.tamano()).isEqualTo(2);
+    }
+
+    @Test
+    void conLaTablaLlenaPurgaLosCubosLlenosParaHacerSitio() throws InterruptedException {
+        LimitadorTasa limitador = new LimitadorTasa(2);
+        long intervalo = TimeUnit.MILLISECONDS.toNanos(1);
+        limitador.intentar("login|ip:1", 1, intervalo);
+        limitador.intentar("login|ip:2", 1, intervalo);
+        Thread.sleep(5);
+
+        assertThat(limitador.intentar("login|ip:3", 1, intervalo)).isZero();
+        assertThat(limitador.desbordamientos()).isZero();
+        assertThat(limitador.tamano()).isEqualTo(1);
+    }
+
+    @Test
+    void purgarEliminaSoloLosCubosLlenos() throws InterruptedException {
+        LimitadorTasa limitador = new LimitadorTasa(100);
+        limitador.intentar("login|ip:1", 1, TimeUnit.MILLISECONDS.toNanos(1));
+        limitador.intentar("login|ip:2", 1, MINUTO);
+        Thread.sleep(5);
+
+        limitador.purgar();
+
+        assertThat(limitador.tamano()).isEqualTo(1);
+        assertThat(limitador.intentar("login|ip:2", 1, MINUTO)).isPositive();
+    }
+}